@@ -0,0 +1,271 @@
+package AI;
+
+import Entity.GameState;
+import Entity.Move;
+import Entity.MoveGenerator;
+import Entity.UndoRecord;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A computer opponent: searches the current position with a fixed time budget per move.
+ * <p>
+ * In ponder mode it also thinks while the opponent is to move, on a background
+ * thread: it searches the position after the reply its last search predicted,
+ * so that when the opponent plays that reply the move is ready. Otherwise the
+ * pondering still fills the transposition table shared by the next search.
+ * Methods must be called from one thread at a time.
+ */
+public class AIPlayer {
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 1000;
+    // Upper bound of a ponder search; it normally ends when the opponent moves
+    private static final long PONDER_LIMIT_MILLIS = 10 * 60 * 1000L;
+
+    private final Searcher searcher;
+    private long timeBudgetMillis;
+    private SearchResult lastResult;
+    private OpeningBook openingBook;
+    private final int[] legalMoves = new int[MoveGenerator.MAX_MOVES];
+    private SearchListener searchListener = SearchListener.NONE;
+
+    private boolean ponder;
+    private ExecutorService ponderThread;
+    private Future<SearchResult> pondering;
+    // Position searched by the running ponder search and when it started
+    private long ponderKey;
+    private long ponderStart;
+    private int ponderHits;
+
+    /* ------------------- */
+    /* --- Constructor --- */
+    public AIPlayer() {
+        this(DEFAULT_TIME_BUDGET_MILLIS);
+    }
+
+    public AIPlayer(long timeBudgetMillis) {
+        this(new SearchEngine(), timeBudgetMillis);
+    }
+
+    public AIPlayer(Searcher searcher, long timeBudgetMillis) {
+        if (searcher == null) {
+            throw new IllegalArgumentException("Searcher cannot be null.");
+        }
+        this.searcher = searcher;
+        setTimeBudgetMillis(timeBudgetMillis);
+    }
+    /* --- --- --- --- --- */
+
+    /**
+     * Chooses the move to play in the given position, which is left untouched.
+     * @return The packed move (see {@link Move}), {@link Move#NONE} if the player cannot move.
+     */
+    public int chooseMove(GameState gameState) {
+        if (pondering != null) {
+            if (gameState.getZobristKey() == ponderKey) {
+                // Ponder hit: the time spent pondering counts, search only for the rest of the budget
+                long remaining = timeBudgetMillis - (System.nanoTime() - ponderStart) / 1_000_000L;
+                SearchResult pondered = finishPondering(remaining);
+                if (pondered != null && pondered.getBestMove() != Move.NONE) {
+                    ponderHits++;
+                    lastResult = pondered;
+                    return pondered.getBestMove();
+                }
+            } else {
+                stopPondering();
+            }
+        }
+        // Book moves are played at once, the time goes to the middlegame
+        if (openingBook != null) {
+            int move = openingBook.probe(gameState.getZobristKey());
+            if (move != Move.NONE && isLegal(gameState, move)) {
+                lastResult = new SearchResult(move, 0, 0, 0, 0, new int[] { move });
+                return move;
+            }
+        }
+        searcher.setSearchListener(searchListener);
+        lastResult = searcher.search(gameState, timeBudgetMillis);
+        return lastResult.getBestMove();
+    }
+
+    // Guards against a key collision with another position
+    private boolean isLegal(GameState gameState, int move) {
+        int count = gameState.generateMoves(legalMoves);
+        for (int i = 0; i < count; i++) {
+            if (legalMoves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* ----------------- */
+    /* --- Pondering --- */
+    /**
+     * Starts thinking in the background while the opponent is to move. Does
+     * nothing unless ponder mode is on. The game state is copied, so it can be
+     * played on while the search runs.
+     * @param opponentToMove The position the opponent has to play from.
+     */
+    public void startPondering(GameState opponentToMove) {
+        stopPondering();
+        if (!ponder || opponentToMove.isGameOver()) {
+            return;
+        }
+        GameState position = new GameState(opponentToMove);
+        int predicted = predictedReply(position);
+        if (predicted != Move.NONE && position.makeMove(predicted, new UndoRecord()) != 0) {
+            return; // The predicted reply ends the game
+        }
+        if (ponderThread == null) {
+            ponderThread = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "onitama-ponder");
+                thread.setDaemon(true);
+                // Input and painting come first
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+        }
+        ponderKey = position.getZobristKey();
+        ponderStart = System.nanoTime();
+        // Progress is only reported for the searches of chooseMove
+        searcher.setSearchListener(SearchListener.NONE);
+        pondering = ponderThread.submit(() -> searcher.search(position, PONDER_LIMIT_MILLIS));
+    }
+
+    /**
+     * Stops the ponder search, if any, and waits for its thread to let go of the searcher.
+     */
+    public void stopPondering() {
+        if (pondering != null) {
+            finishPondering(0);
+        }
+    }
+
+    public boolean isPondering() {
+        return pondering != null;
+    }
+
+    // The opponent's reply in the principal variation of the last search, if legal
+    private int predictedReply(GameState opponentToMove) {
+        if (lastResult == null) {
+            return Move.NONE;
+        }
+        int[] line = lastResult.getPrincipalVariation();
+        if (line.length < 2 || !isLegal(opponentToMove, line[1])) {
+            return Move.NONE;
+        }
+        return line[1];
+    }
+
+    // Lets the ponder search run for up to waitMillis more, then stops it and returns its result
+    private SearchResult finishPondering(long waitMillis) {
+        Future<SearchResult> running = pondering;
+        pondering = null;
+        boolean interrupted = false;
+        try {
+            if (waitMillis > 0) {
+                try {
+                    return running.get(waitMillis, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    // Out of time, stop it below
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            // A search that had not started yet when stopped resets its stop flag,
+            // so keep asking until it returns
+            while (true) {
+                searcher.stop();
+                try {
+                    return running.get(1, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    // Not finished yet, stop it again
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ponder search failed.", e.getCause());
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    /* --- --- --- --- --- */
+
+    /**
+     * Stops a running {@link #chooseMove} early; it returns the best move found so far.
+     */
+    public void stop() {
+        searcher.stop();
+    }
+
+    /* ------------------------- */
+    /* --- Getters & Setters --- */
+    public long getTimeBudgetMillis() {
+        return timeBudgetMillis;
+    }
+
+    public void setTimeBudgetMillis(long timeBudgetMillis) {
+        if (timeBudgetMillis <= 0) {
+            throw new IllegalArgumentException("Time budget must be positive.");
+        }
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    /**
+     * @return The result of the last search, null before the first move.
+     */
+    public SearchResult getLastResult() {
+        return lastResult;
+    }
+
+    public OpeningBook getOpeningBook() {
+        return openingBook;
+    }
+
+    /**
+     * @param openingBook The book consulted before searching, null to always search.
+     */
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    public Searcher getSearcher() {
+        return searcher;
+    }
+
+    /**
+     * @param searchListener Told about the progress of the searches of {@link #chooseMove}, null for none.
+     */
+    public void setSearchListener(SearchListener searchListener) {
+        this.searchListener = searchListener != null ? searchListener : SearchListener.NONE;
+    }
+
+    public boolean isPonder() {
+        return ponder;
+    }
+
+    /**
+     * @param ponder Whether to think during the opponent's turns, see {@link #startPondering}.
+     */
+    public void setPonder(boolean ponder) {
+        this.ponder = ponder;
+        if (!ponder) {
+            stopPondering();
+        }
+    }
+
+    /**
+     * @return The number of moves played from a ponder search whose predicted reply came true.
+     */
+    public int getPonderHits() {
+        return ponderHits;
+    }
+    /* --- --- --- --- --- */
+}
@@ -0,0 +1,149 @@
+package AI;
+
+import Entity.BitBoard;
+import Entity.Deck;
+import Entity.Move;
+import java.util.Arrays;
+
+/**
+ * Scores of every legal move of a position at one search depth, as found by
+ * {@link SearchEngine#analyze}. Moves are sorted best first; scores are for the
+ * player to move. Immutable, so it can be handed from the analysis thread to the
+ * Swing thread as is.
+ */
+public class AnalysisResult {
+    /** Marks a square or card with no legal move in {@link #getBestScoreByTarget} and {@link #getBestScoreByCard}. */
+    public static final int NO_SCORE = Integer.MIN_VALUE;
+
+    private final long key;
+    private final int depth;
+    private final long nodes;
+    private final long timeMillis;
+    private final int[] moves;
+    private final int[] scores;
+
+    public AnalysisResult(long key, int depth, long nodes, long timeMillis, int[] moves, int[] scores) {
+        if (moves.length != scores.length) {
+            throw new IllegalArgumentException("Every move needs a score.");
+        }
+        this.key = key;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+        this.moves = moves.clone();
+        this.scores = scores.clone();
+        // Insertion sort, best score first: there are only a few dozen moves
+        for (int i = 1; i < this.moves.length; i++) {
+            int move = this.moves[i];
+            int score = this.scores[i];
+            int j = i - 1;
+            while (j >= 0 && this.scores[j] < score) {
+                this.moves[j + 1] = this.moves[j];
+                this.scores[j + 1] = this.scores[j];
+                j--;
+            }
+            this.moves[j + 1] = move;
+            this.scores[j + 1] = score;
+        }
+    }
+
+    /* --------------- */
+    /* --- Getters --- */
+    /**
+     * @return The Zobrist key of the analysed position.
+     */
+    public long getKey() {
+        return key;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public int getMoveCount() {
+        return moves.length;
+    }
+
+    /**
+     * @return The packed move of the given rank (see {@link Move}), 0 being the best.
+     */
+    public int getMove(int rank) {
+        return moves[rank];
+    }
+
+    public int getScore(int rank) {
+        return scores[rank];
+    }
+    /* --- --- --- --- --- */
+
+    /**
+     * Best score of the moves landing on each square.
+     * @param fromSquare Only counts the moves of the piece on this square, -1 for all pieces.
+     * @param cardIndex Only counts the moves with this card (see {@link Deck}), -1 for all cards.
+     * @return The scores indexed by square, {@link #NO_SCORE} where no such move lands.
+     */
+    public int[] getBestScoreByTarget(int fromSquare, int cardIndex) {
+        int[] best = new int[BitBoard.SQUARES];
+        Arrays.fill(best, NO_SCORE);
+        for (int i = 0; i < moves.length; i++) {
+            if ((fromSquare < 0 || Move.getFrom(moves[i]) == fromSquare)
+                    && (cardIndex < 0 || Move.getCardIndex(moves[i]) == cardIndex)) {
+                int to = Move.getTo(moves[i]);
+                best[to] = Math.max(best[to], scores[i]);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return The best score of the moves played with each card, indexed by deck
+     *         index, {@link #NO_SCORE} for the cards with no legal move.
+     */
+    public int[] getBestScoreByCard() {
+        int[] best = new int[Deck.size()];
+        Arrays.fill(best, NO_SCORE);
+        for (int i = 0; i < moves.length; i++) {
+            int card = Move.getCardIndex(moves[i]);
+            best[card] = Math.max(best[card], scores[i]);
+        }
+        return best;
+    }
+
+    /**
+     * Short display form of a score: pawns with two decimals, or "#n" / "-#n" for a
+     * forced win / loss in n plies.
+     */
+    public static String formatScore(int score) {
+        if (score >= SearchEngine.WIN_SCORE - SearchEngine.MAX_PLY) {
+            return "#" + (SearchEngine.WIN_SCORE - score);
+        }
+        if (score <= -SearchEngine.WIN_SCORE + SearchEngine.MAX_PLY) {
+            return "-#" + (SearchEngine.WIN_SCORE + score);
+        }
+        return String.format("%+.2f", score / (double) Evaluator.PAWN_VALUE);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("depth=").append(depth)
+          .append(" nodes=").append(nodes)
+          .append(" time=").append(timeMillis).append("ms")
+          .append(" moves=");
+        for (int i = 0; i < moves.length; i++) {
+            sb.append(Move.toString(moves[i])).append(":").append(formatScore(scores[i]));
+            if (i < moves.length - 1) {
+                sb.append(" ");
+            }
+        }
+        return sb.toString();
+    }
+}
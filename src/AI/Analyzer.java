@@ -0,0 +1,97 @@
+package AI;
+
+import Entity.GameState;
+import java.io.Closeable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Continuous analysis of a position on a background thread: scores every legal
+ * move with {@link SearchEngine#analyze}, deeper and deeper, until another
+ * position is given or {@link #stop} is called. The scores of the last completed
+ * depth are published as an immutable {@link AnalysisResult} that any thread can
+ * poll with {@link #getSnapshot}; the search never waits for its readers.
+ * <p>
+ * The analyzer has its own engine and transposition table, so it does not
+ * disturb the AI players. Its methods may be called from any thread.
+ */
+public class Analyzer implements Closeable {
+    // Upper bound of one analysis; it normally ends when the position changes
+    private static final long ANALYSIS_LIMIT_MILLIS = 60 * 60 * 1000L;
+
+    private final SearchEngine engine;
+    private final ExecutorService analysisThread;
+    // Incremented for each new position: results of an older one are dropped
+    private final AtomicInteger generation = new AtomicInteger();
+    private volatile AnalysisResult snapshot;
+
+    /* ------------------- */
+    /* --- Constructor --- */
+    public Analyzer() {
+        this(new SearchEngine());
+    }
+
+    public Analyzer(SearchEngine engine) {
+        if (engine == null) {
+            throw new IllegalArgumentException("Search engine cannot be null.");
+        }
+        this.engine = engine;
+        this.analysisThread = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "onitama-analysis");
+            thread.setDaemon(true);
+            // Input and painting come first
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+    /* --- --- --- --- --- */
+
+    /**
+     * Starts analysing a position, dropping the analysis of the previous one.
+     * The game state is copied, so it can be played on meanwhile.
+     */
+    public void analyze(GameState position) {
+        final int current = generation.incrementAndGet();
+        snapshot = null;
+        engine.stop();
+        final GameState copy = new GameState(position);
+        analysisThread.execute(() -> {
+            if (current != generation.get()) return; // Superseded while queued
+            engine.analyze(copy, ANALYSIS_LIMIT_MILLIS, result -> {
+                if (current == generation.get()) {
+                    snapshot = result;
+                } else {
+                    // Superseded after it had started: the stop above may have come before
+                    // the engine reset its stop flag, so stop it from here
+                    engine.stop();
+                }
+            });
+        });
+    }
+
+    /**
+     * Stops the running analysis and clears the snapshot.
+     */
+    public void stop() {
+        generation.incrementAndGet();
+        snapshot = null;
+        engine.stop();
+    }
+
+    /**
+     * @return The scores of the last depth completed for the current position, null if none yet.
+     */
+    public AnalysisResult getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Stops the analysis thread. The analyzer cannot be used afterwards.
+     */
+    @Override
+    public void close() {
+        stop();
+        analysisThread.shutdownNow();
+    }
+}
@@ -0,0 +1,510 @@
+package AI;
+
+import Entity.BitBoard;
+import Entity.CardDistribution;
+import Entity.Deck;
+import Entity.GameState;
+import Entity.MoveTable;
+import Entity.UndoRecord;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Plays many independent random games in lockstep, for playout statistics that
+ * need millions of games: MCTS priors, deal balance. Positions are stored as a
+ * struct of arrays, one {@code int} array per field and one slot per game, seen
+ * from the side to move: its pieces, its master, its cards, then the same for
+ * the opponent. A move swaps the two halves instead of branching on the player.
+ * <p>
+ * Each {@link #play} step advances every live game by one uniformly random legal
+ * move, then compacts the list of live slots, so the loop stays dense as games
+ * finish. Moves are never listed: the legal targets of each (piece, card) are
+ * counted from {@link MoveTable} masks and the chosen one is found by rank. The
+ * rules are those of {@link GameState}: the played card is swapped with the
+ * neutral card, a player without legal moves passes, and a game ends when a
+ * master is captured or reaches the opposing temple arch.
+ * <p>
+ * Not thread-safe: use one per thread.
+ * <pre>
+ * java -cp out AI.BatchPlayout [--playouts n] [--batch n] [--deals n] [--seed s]
+ * </pre>
+ */
+public class BatchPlayout {
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+    public static final int DEFAULT_MAX_PLIES = MonteCarloTreeSearch.MAX_PLAYOUT_PLIES;
+
+    /** Result of a slot whose game is still going. */
+    public static final int ONGOING = -1;
+    /** Result of a game stopped at the ply limit. */
+    public static final int DRAW = 0;
+
+    // Temple arch bit each player must reach, indexed by player id
+    private static final int[] TARGET_TEMPLE = {
+        0, 1 << BitBoard.getTempleArch(2), 1 << BitBoard.getTempleArch(1)
+    };
+    // Pieces of the starting position, indexed by player id
+    private static final int[] START_PIECES = new int[3];
+    private static final int[] START_MASTER = new int[3];
+
+    static {
+        BitBoard start = new GameState().getBitBoard();
+        for (int playerId = 1; playerId <= 2; playerId++) {
+            START_PIECES[playerId] = start.getPieces(playerId);
+            START_MASTER[playerId] = start.getMaster(playerId);
+        }
+    }
+
+    private final int size;
+
+    // Position of each slot, from the side to move
+    private final int[] ownPieces;
+    private final int[] ownMaster;
+    private final int[] ownCards;
+    private final int[] enemyPieces;
+    private final int[] enemyMaster;
+    private final int[] enemyCards;
+    private final int[] neutralCard;
+    private final int[] sideToMove;
+
+    private final int[] plies;
+    private final int[] results;
+    private final int[] live;
+    private int liveCount;
+
+    // Per-piece target masks of the side to move, filled while counting its moves
+    private final int[] origins = new int[BitBoard.SIZE];
+    private final int[] firstTargets = new int[BitBoard.SIZE];
+    private final int[] secondTargets = new int[BitBoard.SIZE];
+
+    private long randomState;
+    private long totalPlies;
+
+    /* ------------------- */
+    /* --- Constructor --- */
+    public BatchPlayout() {
+        this(DEFAULT_BATCH_SIZE, System.nanoTime());
+    }
+
+    /**
+     * @param size Number of games played in lockstep.
+     * @param seed Seed of the move choices, so that a run can be repeated.
+     */
+    public BatchPlayout(int size, long seed) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive.");
+        }
+        this.size = size;
+        this.ownPieces = new int[size];
+        this.ownMaster = new int[size];
+        this.ownCards = new int[size];
+        this.enemyPieces = new int[size];
+        this.enemyMaster = new int[size];
+        this.enemyCards = new int[size];
+        this.neutralCard = new int[size];
+        this.sideToMove = new int[size];
+        this.plies = new int[size];
+        this.results = new int[size];
+        this.live = new int[size];
+        this.randomState = new SplittableRandom(seed).nextLong();
+        clear();
+    }
+    /* --- --- --- --- --- */
+
+    /* --------------- */
+    /* --- Loading --- */
+    /**
+     * Empties every slot: {@link #play} skips a slot until something is loaded in it.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            results[i] = DRAW;
+            plies[i] = 0;
+        }
+        liveCount = 0;
+    }
+
+    /**
+     * Loads a copy of the position in a slot. A position that is already won stays
+     * finished, with its winner as the result.
+     */
+    public void load(int slot, GameState gameState) {
+        BitBoard bitBoard = gameState.getBitBoard();
+        int player = gameState.getCurrentPlayerId();
+        int opponent = BitBoard.opponent(player);
+        int neutral = Deck.indexOf(gameState.getNeutralCardMove());
+        int cards = gameState.getPlayer(player).getCardMask();
+        int opponentCards = gameState.getPlayer(opponent).getCardMask();
+        if (neutral < 0 || Integer.bitCount(cards) != 2 || Integer.bitCount(opponentCards) != 2) {
+            throw new IllegalArgumentException("Batch playouts need two deck cards per hand and a neutral deck card.");
+        }
+        set(slot, player, bitBoard.getPieces(player), bitBoard.getMaster(player), cards,
+                bitBoard.getPieces(opponent), bitBoard.getMaster(opponent), opponentCards, neutral);
+        int winner = bitBoard.checkWinner(opponent);
+        if (winner == 0) {
+            winner = bitBoard.checkWinner(player);
+        }
+        if (winner != 0) {
+            results[slot] = winner;
+            liveCount--; // The slot was just appended to the live list
+        }
+    }
+
+    /**
+     * Loads the starting board with the cards of a {@link CardDistribution} in a
+     * slot, without building a {@link GameState}. The neutral card decides who starts.
+     */
+    public void loadDeal(int slot, int distribution) {
+        if (distribution < 0 || distribution >= CardDistribution.COUNT) {
+            throw new IllegalArgumentException("Unknown card distribution: " + distribution);
+        }
+        int cards1 = (1 << CardDistribution.getPlayer1Card(distribution, 0))
+                | (1 << CardDistribution.getPlayer1Card(distribution, 1));
+        int cards2 = (1 << CardDistribution.getPlayer2Card(distribution, 0))
+                | (1 << CardDistribution.getPlayer2Card(distribution, 1));
+        int neutral = CardDistribution.getNeutralCard(distribution);
+        if (Deck.getCard(neutral).getStarting() == 1) {
+            set(slot, 1, START_PIECES[1], START_MASTER[1], cards1, START_PIECES[2], START_MASTER[2], cards2, neutral);
+        } else {
+            set(slot, 2, START_PIECES[2], START_MASTER[2], cards2, START_PIECES[1], START_MASTER[1], cards1, neutral);
+        }
+    }
+
+    private void set(int slot, int player, int pieces, int master, int cards,
+            int opponentPieces, int opponentMaster, int opponentCards, int neutral) {
+        if (slot < 0 || slot >= size) {
+            throw new IllegalArgumentException("Slot out of range: " + slot);
+        }
+        if (results[slot] == ONGOING) {
+            throw new IllegalArgumentException("Slot already holds a game in progress: " + slot);
+        }
+        ownPieces[slot] = pieces;
+        ownMaster[slot] = master;
+        ownCards[slot] = cards;
+        enemyPieces[slot] = opponentPieces;
+        enemyMaster[slot] = opponentMaster;
+        enemyCards[slot] = opponentCards;
+        neutralCard[slot] = neutral;
+        sideToMove[slot] = player;
+        plies[slot] = 0;
+        results[slot] = ONGOING;
+        live[liveCount++] = slot;
+    }
+    /* --- --- --- --- --- */
+
+    /* --------------- */
+    /* --- Playing --- */
+    /**
+     * Plays every loaded game to its end, or until it has lasted maxPlies plies,
+     * in which case its result is {@link #DRAW}.
+     * @return The number of plies played.
+     */
+    public long play(int maxPlies) {
+        long played = 0;
+        while (liveCount > 0) {
+            int kept = 0;
+            for (int k = 0; k < liveCount; k++) {
+                int slot = live[k];
+                if (!step(slot) && plies[slot] < maxPlies) {
+                    live[kept++] = slot;
+                } else if (results[slot] == ONGOING) {
+                    results[slot] = DRAW;
+                }
+            }
+            played += liveCount;
+            liveCount = kept;
+        }
+        totalPlies += played;
+        return played;
+    }
+
+    // Plays one random move in the slot; returns true if it won the game
+    private boolean step(int slot) {
+        int player = sideToMove[slot];
+        int pieces = ownPieces[slot];
+        int cards = ownCards[slot];
+        int firstCard = Integer.numberOfTrailingZeros(cards);
+        int secondCard = Integer.numberOfTrailingZeros(cards & (cards - 1));
+        plies[slot]++;
+
+        // Count the legal moves, keeping the targets of each piece
+        int count = 0;
+        int total = 0;
+        for (int m = pieces; m != 0; m &= m - 1) {
+            int sq = Integer.numberOfTrailingZeros(m);
+            int first = MoveTable.getTargets(firstCard, player, sq) & ~pieces;
+            int second = MoveTable.getTargets(secondCard, player, sq) & ~pieces;
+            origins[count] = sq;
+            firstTargets[count] = first;
+            secondTargets[count] = second;
+            count++;
+            total += Integer.bitCount(first) + Integer.bitCount(second);
+        }
+        if (total == 0) {
+            swapSides(slot, player, pieces, ownMaster[slot], cards); // No legal move: the turn passes
+            return false;
+        }
+
+        // Find the chosen move by rank
+        int rank = (int) (((nextRandom() >>> 32) * total) >>> 32);
+        int from = 0;
+        int targets = 0;
+        int card = firstCard;
+        for (int k = 0; k < count; k++) {
+            int firstCount = Integer.bitCount(firstTargets[k]);
+            if (rank < firstCount) {
+                from = origins[k];
+                targets = firstTargets[k];
+                break;
+            }
+            rank -= firstCount;
+            int secondCount = Integer.bitCount(secondTargets[k]);
+            if (rank < secondCount) {
+                from = origins[k];
+                targets = secondTargets[k];
+                card = secondCard;
+                break;
+            }
+            rank -= secondCount;
+        }
+        for (; rank > 0; rank--) {
+            targets &= targets - 1;
+        }
+        int toBit = Integer.lowestOneBit(targets);
+        int fromBit = 1 << from;
+
+        // Play it
+        pieces ^= fromBit | toBit;
+        int master = ownMaster[slot];
+        boolean won = false;
+        if ((enemyPieces[slot] & toBit) != 0) {
+            enemyPieces[slot] &= ~toBit;
+            if (enemyMaster[slot] == toBit) {
+                enemyMaster[slot] = 0;
+                won = true; // Way of the Stone
+            }
+        }
+        if (master == fromBit) {
+            master = toBit;
+            won |= toBit == TARGET_TEMPLE[player]; // Way of the Stream
+        }
+        int neutral = neutralCard[slot];
+        cards ^= (1 << card) | (1 << neutral);
+        neutralCard[slot] = card;
+        if (won) {
+            ownPieces[slot] = pieces;
+            ownMaster[slot] = master;
+            ownCards[slot] = cards;
+            results[slot] = player;
+            return true;
+        }
+        swapSides(slot, player, pieces, master, cards);
+        return false;
+    }
+
+    // Hands the move to the opponent, whose half of the slot becomes the side to move
+    private void swapSides(int slot, int player, int pieces, int master, int cards) {
+        ownPieces[slot] = enemyPieces[slot];
+        ownMaster[slot] = enemyMaster[slot];
+        ownCards[slot] = enemyCards[slot];
+        enemyPieces[slot] = pieces;
+        enemyMaster[slot] = master;
+        enemyCards[slot] = cards;
+        sideToMove[slot] = 3 - player;
+    }
+
+    // SplitMix64, inlined so that the hot loop allocates and dispatches nothing
+    private long nextRandom() {
+        long z = (randomState += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+    /* --- --- --- --- --- */
+
+    /* ------------------ */
+    /* --- Statistics --- */
+    /**
+     * Plays random games from the position and counts the results.
+     * @param playouts Number of games to play.
+     * @return The number of draws, Player 1 wins and Player 2 wins, indexed by result.
+     */
+    public long[] simulate(GameState start, long playouts, int maxPlies) {
+        long[] counts = new long[3];
+        long remaining = playouts;
+        while (remaining > 0) {
+            int batch = (int) Math.min(size, remaining);
+            clear();
+            for (int i = 0; i < batch; i++) {
+                load(i, start);
+            }
+            play(maxPlies);
+            for (int i = 0; i < batch; i++) {
+                counts[results[i]]++;
+            }
+            remaining -= batch;
+        }
+        return counts;
+    }
+
+    /**
+     * Scores each move by random playouts after it, e.g. as MCTS priors.
+     * @param scores Filled with the average result for the player to move:
+     *               1 for a win, 0.5 for a draw, 0 for a loss.
+     */
+    public void scoreMoves(GameState root, int[] moves, int count, long playoutsPerMove, int maxPlies,
+            double[] scores) {
+        int player = root.getCurrentPlayerId();
+        GameState state = new GameState(root);
+        UndoRecord undo = new UndoRecord();
+        for (int i = 0; i < count; i++) {
+            int winner = state.makeMove(moves[i], undo);
+            if (winner != 0) {
+                scores[i] = winner == player ? 1 : 0;
+            } else {
+                long[] counts = simulate(state, playoutsPerMove, maxPlies);
+                scores[i] = (counts[player] + 0.5 * counts[DRAW]) / playoutsPerMove;
+            }
+            state.unmakeMove(undo);
+        }
+    }
+    /* --- --- --- --- --- */
+
+    /* --------------- */
+    /* --- Getters --- */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return The id of the winner of the slot's game, {@link #DRAW} if it hit the
+     *         ply limit or was never loaded, {@link #ONGOING} during a step.
+     */
+    public int getResult(int slot) {
+        return results[slot];
+    }
+
+    /**
+     * @return The number of plies played in the slot's game, passes included.
+     */
+    public int getPlies(int slot) {
+        return plies[slot];
+    }
+
+    /**
+     * @return The number of plies played since this batch was created.
+     */
+    public long getTotalPlies() {
+        return totalPlies;
+    }
+    /* --- --- --- --- --- */
+
+    public static void main(String[] args) {
+        long playouts = 10_000_000L;
+        int batchSize = DEFAULT_BATCH_SIZE;
+        int deals = 0;
+        long seed = System.nanoTime();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--playouts") && i + 1 < args.length) {
+                playouts = Long.parseLong(args[++i]);
+            } else if (args[i].equals("--batch") && i + 1 < args.length) {
+                batchSize = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--deals") && i + 1 < args.length) {
+                deals = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--seed") && i + 1 < args.length) {
+                seed = Long.parseLong(args[++i]);
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        BatchPlayout batch = new BatchPlayout(batchSize, seed);
+        SplittableRandom random = new SplittableRandom(seed);
+
+        if (deals <= 0) {
+            // Throughput: random deals, refilled batch after batch
+            long[] counts = new long[3];
+            long starterWins = 0;
+            int[] starters = new int[batchSize];
+            long start = System.nanoTime();
+            for (long done = 0; done < playouts; done += batchSize) {
+                int n = (int) Math.min(batchSize, playouts - done);
+                batch.clear();
+                for (int i = 0; i < n; i++) {
+                    batch.loadDeal(i, random.nextInt(CardDistribution.COUNT));
+                    starters[i] = batch.sideToMove[i];
+                }
+                batch.play(DEFAULT_MAX_PLIES);
+                for (int i = 0; i < n; i++) {
+                    counts[batch.results[i]]++;
+                    if (batch.results[i] == starters[i]) {
+                        starterWins++;
+                    }
+                }
+            }
+            long nanos = Math.max(1, System.nanoTime() - start);
+            long total = counts[0] + counts[1] + counts[2];
+            System.out.printf("%d playouts in %.2f s: %,d playouts/minute, %.1f plies/playout, %,d plies/s%n",
+                    total, nanos / 1e9, total * 60_000_000_000L / nanos,
+                    (double) batch.getTotalPlies() / total, batch.getTotalPlies() * 1_000_000_000L / nanos);
+            System.out.printf("Player 1 %.2f%%  Player 2 %.2f%%  draws %.2f%%  starting player %.2f%%%n",
+                    100.0 * counts[1] / total, 100.0 * counts[2] / total, 100.0 * counts[0] / total,
+                    100.0 * starterWins / total);
+            return;
+        }
+
+        // Deal balance: the starting player's score on each sampled deal
+        long perDeal = Math.max(1, playouts / deals);
+        int[] sampled = new int[deals];
+        double[] starterScores = new double[deals];
+        long start = System.nanoTime();
+        for (int d = 0; d < deals; d++) {
+            int distribution = random.nextInt(CardDistribution.COUNT);
+            int starter = Deck.getCard(CardDistribution.getNeutralCard(distribution)).getStarting() == 1 ? 1 : 2;
+            long points = 0;
+            for (long done = 0; done < perDeal; done += batchSize) {
+                int n = (int) Math.min(batchSize, perDeal - done);
+                batch.clear();
+                for (int i = 0; i < n; i++) {
+                    batch.loadDeal(i, distribution);
+                }
+                batch.play(DEFAULT_MAX_PLIES);
+                for (int i = 0; i < n; i++) {
+                    int result = batch.results[i];
+                    points += result == DRAW ? 1 : (result == starter ? 2 : 0);
+                }
+            }
+            sampled[d] = distribution;
+            starterScores[d] = points / (2.0 * perDeal);
+        }
+        long nanos = Math.max(1, System.nanoTime() - start);
+
+        Integer[] order = new Integer[deals];
+        double mean = 0;
+        for (int d = 0; d < deals; d++) {
+            order[d] = d;
+            mean += starterScores[d];
+        }
+        mean /= deals;
+        Arrays.sort(order, (a, b) -> Double.compare(starterScores[b], starterScores[a]));
+        System.out.printf("%d deals x %d playouts in %.2f s; starting player scores %.2f%% on average%n",
+                deals, perDeal, nanos / 1e9, 100 * mean);
+        int shown = Math.min(5, deals);
+        System.out.println("Best deals for the starting player:");
+        for (int k = 0; k < shown; k++) {
+            System.out.println("  " + describeDeal(sampled[order[k]], starterScores[order[k]]));
+        }
+        System.out.println("Worst deals for the starting player:");
+        for (int k = deals - shown; k < deals; k++) {
+            System.out.println("  " + describeDeal(sampled[order[k]], starterScores[order[k]]));
+        }
+    }
+
+    private static String describeDeal(int distribution, double starterScore) {
+        return String.format("%6d  P1 %s/%s  P2 %s/%s  neutral %s: %.1f%%", distribution,
+                Deck.getCard(CardDistribution.getPlayer1Card(distribution, 0)).getCardName(),
+                Deck.getCard(CardDistribution.getPlayer1Card(distribution, 1)).getCardName(),
+                Deck.getCard(CardDistribution.getPlayer2Card(distribution, 0)).getCardName(),
+                Deck.getCard(CardDistribution.getPlayer2Card(distribution, 1)).getCardName(),
+                Deck.getCard(CardDistribution.getNeutralCard(distribution)).getCardName(),
+                100 * starterScore);
+    }
+}
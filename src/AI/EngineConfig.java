@@ -0,0 +1,168 @@
+package AI;
+
+import Entity.GameState;
+import java.io.Closeable;
+
+/**
+ * Description of a computer player for unattended games, parsed from a short
+ * comma-separated spec, e.g. {@code "time=50,hash=16,-lmr"} or {@code "mcts,time=100"}.
+ * <pre>
+ * time=ms      time per move (default 20)
+ * depth=n      depth limit of alpha-beta, reached before the time runs out if it is low
+ * hash=MB      transposition table size (default 16)
+ * mcts         Monte Carlo Tree Search instead of alpha-beta
+ * -quiescence -hashmove -captures -killers -history -pvs -aspiration -lmr
+ *              switch off one {@link SearchOptions} enhancement of alpha-beta
+ * </pre>
+ * A config is immutable; {@link #newEngine} builds a single-threaded engine from
+ * it, one per game thread.
+ */
+public class EngineConfig {
+    public static final long DEFAULT_TIME_MILLIS = 20;
+    public static final int DEFAULT_HASH_MB = 16;
+
+    private final String spec;
+    private final long timeMillis;
+    private final int depth;
+    private final int hashMB;
+    private final boolean mcts;
+    private final SearchOptions options;
+
+    private EngineConfig(String spec, long timeMillis, int depth, int hashMB, boolean mcts, SearchOptions options) {
+        this.spec = spec;
+        this.timeMillis = timeMillis;
+        this.depth = depth;
+        this.hashMB = hashMB;
+        this.mcts = mcts;
+        this.options = options;
+    }
+
+    /**
+     * @param spec Comma-separated settings, see the class comment; empty for the defaults.
+     */
+    public static EngineConfig parse(String spec) {
+        long timeMillis = DEFAULT_TIME_MILLIS;
+        int depth = SearchEngine.MAX_PLY - 1;
+        int hashMB = DEFAULT_HASH_MB;
+        boolean mcts = false;
+        SearchOptions options = new SearchOptions();
+        for (String setting : spec.split(",")) {
+            String s = setting.trim();
+            if (s.isEmpty()) {
+                continue;
+            }
+            if (s.startsWith("time=")) {
+                timeMillis = Long.parseLong(s.substring(5));
+            } else if (s.startsWith("depth=")) {
+                depth = Integer.parseInt(s.substring(6));
+            } else if (s.startsWith("hash=")) {
+                hashMB = Integer.parseInt(s.substring(5));
+            } else if (s.equals("mcts")) {
+                mcts = true;
+            } else if (s.equals("-quiescence")) {
+                options.setQuiescence(false);
+            } else if (s.equals("-hashmove")) {
+                options.setHashMoveOrdering(false);
+            } else if (s.equals("-captures")) {
+                options.setCaptureOrdering(false);
+            } else if (s.equals("-killers")) {
+                options.setKillerMoves(false);
+            } else if (s.equals("-history")) {
+                options.setHistoryHeuristic(false);
+            } else if (s.equals("-pvs")) {
+                options.setPrincipalVariationSearch(false);
+            } else if (s.equals("-aspiration")) {
+                options.setAspirationWindows(false);
+            } else if (s.equals("-lmr")) {
+                options.setLateMoveReductions(false);
+            } else {
+                throw new IllegalArgumentException("Unknown engine setting: " + s);
+            }
+        }
+        if (timeMillis <= 0 || depth <= 0 || depth >= SearchEngine.MAX_PLY || hashMB <= 0) {
+            throw new IllegalArgumentException("Time, depth and hash size must be positive, depth below "
+                    + SearchEngine.MAX_PLY + ": " + spec);
+        }
+        return new EngineConfig(spec, timeMillis, depth, hashMB, mcts, options);
+    }
+
+    /**
+     * Builds a single-threaded engine following this config.
+     */
+    public Engine newEngine() {
+        return new Engine();
+    }
+
+    /* --------------- */
+    /* --- Getters --- */
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getHashMB() {
+        return hashMB;
+    }
+
+    public boolean isMcts() {
+        return mcts;
+    }
+
+    public SearchOptions getOptions() {
+        return new SearchOptions(options);
+    }
+    /* --- --- --- --- --- */
+
+    @Override
+    public String toString() {
+        return spec.isEmpty() ? "default" : spec;
+    }
+
+    /**
+     * An engine built from the config. Not thread-safe: use one per thread.
+     */
+    public class Engine implements Closeable {
+        private final SearchEngine alphaBeta;
+        private final MonteCarloTreeSearch monteCarlo;
+
+        private Engine() {
+            if (mcts) {
+                this.alphaBeta = null;
+                this.monteCarlo = new MonteCarloTreeSearch(1);
+            } else {
+                this.alphaBeta = new SearchEngine(new Evaluator(), new TranspositionTable(hashMB));
+                this.alphaBeta.setOptions(options);
+                this.monteCarlo = null;
+            }
+        }
+
+        /**
+         * @return The packed move to play, {@link Entity.Move#NONE} if the player cannot move.
+         */
+        public int chooseMove(GameState gameState) {
+            SearchResult result = (alphaBeta != null)
+                    ? alphaBeta.search(gameState, depth, timeMillis)
+                    : monteCarlo.search(gameState, timeMillis);
+            return result.getBestMove();
+        }
+
+        /**
+         * Forgets what was learned in the previous game.
+         */
+        public void newGame() {
+            if (alphaBeta != null) {
+                alphaBeta.getTranspositionTable().clear();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (monteCarlo != null) {
+                monteCarlo.close();
+            }
+        }
+    }
+}
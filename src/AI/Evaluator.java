@@ -0,0 +1,215 @@
+package AI;
+
+import Entity.BitBoard;
+import Entity.Deck;
+import Entity.GameState;
+import Entity.Move;
+import Entity.MoveTable;
+import Entity.UndoRecord;
+
+/**
+ * Static evaluation of a position for the search, from the point of view of
+ * the player to move. Works on the {@link BitBoard} only.
+ * <p>
+ * The terms are material, piece placement (pawns near the center, master
+ * close to the opponent's temple arch), card mobility and master safety.
+ * Placement and mobility are kept in running sums updated by
+ * {@link #makeMove}/{@link #unmakeMove}: for each player, one placement sum
+ * and one mobility sum per card of the game over the player's pieces, so a
+ * leaf only adds the sums of the two cards in hand. Master safety looks at
+ * the masters with the cards in hand, in constant time. Nothing is allocated.
+ * <p>
+ * The running sums follow one game state: call {@link #reset} on it before
+ * searching, and play moves through this evaluator. An evaluator is not
+ * thread-safe: use one per search engine.
+ */
+public class Evaluator {
+    public static final int PAWN_VALUE = 100;
+    // Bonus per step the master is closer to the opponent's temple arch
+    public static final int TEMPLE_STEP_VALUE = 12;
+    // Bonus per square reachable by the pieces with a card in hand, blockers ignored
+    public static final int MOBILITY_VALUE = 2;
+    // Penalty per enemy piece able to capture the master with the enemy's cards
+    public static final int MASTER_ATTACKER_PENALTY = 40;
+    // Small bonus for pieces near the center of the board
+    private static final int[] CENTER_BONUS = new int[BitBoard.SQUARES];
+    // Placement value of a piece, [player][master ? 1 : 0][square]
+    private static final int[][][] PLACEMENT = new int[3][2][BitBoard.SQUARES];
+    // Number of squares a piece reaches, [player][card][square]
+    private static final int[][][] REACH = new int[3][Deck.size()][BitBoard.SQUARES];
+
+    static {
+        for (int sq = 0; sq < BitBoard.SQUARES; sq++) {
+            int dr = Math.abs(BitBoard.row(sq) - 2);
+            int dc = Math.abs(BitBoard.col(sq) - 2);
+            CENTER_BONUS[sq] = 4 * (4 - dr - dc);
+        }
+        for (int playerId = 1; playerId <= 2; playerId++) {
+            int enemyTemple = BitBoard.getTempleArch(BitBoard.opponent(playerId));
+            for (int sq = 0; sq < BitBoard.SQUARES; sq++) {
+                PLACEMENT[playerId][0][sq] = PAWN_VALUE + CENTER_BONUS[sq];
+                PLACEMENT[playerId][1][sq] = (8 - templeDistance(sq, enemyTemple)) * TEMPLE_STEP_VALUE;
+                for (int card = 0; card < Deck.size(); card++) {
+                    REACH[playerId][card][sq] = Integer.bitCount(MoveTable.getTargets(card, playerId, sq));
+                }
+            }
+        }
+    }
+
+    // Running sums of the tracked state, indexed by player id
+    private final int[] placement = new int[3];
+    private final int[][] mobility = new int[3][Deck.size()];
+    // The five cards of the tracked game: only their mobility sums are kept up to date
+    private final int[] activeCards = new int[Deck.size()];
+    private int activeCount;
+
+    /* -------------------- */
+    /* --- Running sums --- */
+    /**
+     * Recomputes the running sums for a game state. Moves on that state must
+     * then be played through {@link #makeMove} and {@link #unmakeMove}.
+     */
+    public void reset(GameState gameState) {
+        BitBoard bitBoard = gameState.getBitBoard();
+        int cardMask = gameState.getPlayer1().getCardMask() | gameState.getPlayer2().getCardMask();
+        int neutral = Deck.indexOf(gameState.getNeutralCardMove());
+        if (neutral >= 0) {
+            cardMask |= 1 << neutral;
+        }
+        activeCount = 0;
+        for (int m = cardMask; m != 0; m &= m - 1) {
+            activeCards[activeCount++] = Integer.numberOfTrailingZeros(m);
+        }
+        for (int playerId = 1; playerId <= 2; playerId++) {
+            placement[playerId] = 0;
+            int[] sums = mobility[playerId];
+            for (int card = 0; card < sums.length; card++) {
+                sums[card] = 0;
+            }
+            for (int m = bitBoard.getPieces(playerId); m != 0; m &= m - 1) {
+                int sq = Integer.numberOfTrailingZeros(m);
+                addPiece(playerId, bitBoard.isMasterAt(sq), sq, 1);
+            }
+        }
+    }
+
+    /**
+     * Plays a move on the tracked state with {@link GameState#makeMove} and
+     * updates the running sums.
+     * @return The id of the winner if the move ends the game, 0 otherwise.
+     */
+    public int makeMove(GameState gameState, int move, UndoRecord undo) {
+        BitBoard bitBoard = gameState.getBitBoard();
+        int playerId = gameState.getCurrentPlayerId();
+        int from = Move.getFrom(move);
+        int to = Move.getTo(move);
+        boolean master = bitBoard.isMasterAt(from);
+        if (Move.isCapture(move)) {
+            addPiece(BitBoard.opponent(playerId), bitBoard.isMasterAt(to), to, -1);
+        }
+        addPiece(playerId, master, from, -1);
+        addPiece(playerId, master, to, 1);
+        return gameState.makeMove(move, undo);
+    }
+
+    /**
+     * Takes back a move played with {@link #makeMove} and restores the running sums.
+     */
+    public void unmakeMove(GameState gameState, UndoRecord undo) {
+        gameState.unmakeMove(undo);
+        BitBoard bitBoard = gameState.getBitBoard();
+        int playerId = undo.getPlayerId();
+        int move = undo.getMove();
+        int from = Move.getFrom(move);
+        int to = Move.getTo(move);
+        boolean master = bitBoard.isMasterAt(from);
+        addPiece(playerId, master, to, -1);
+        addPiece(playerId, master, from, 1);
+        if (Move.isCapture(move)) {
+            addPiece(BitBoard.opponent(playerId), bitBoard.isMasterAt(to), to, 1);
+        }
+    }
+
+    private void addPiece(int playerId, boolean master, int square, int sign) {
+        placement[playerId] += sign * PLACEMENT[playerId][master ? 1 : 0][square];
+        int[][] reach = REACH[playerId];
+        int[] sums = mobility[playerId];
+        for (int i = 0; i < activeCount; i++) {
+            int card = activeCards[i];
+            sums[card] += sign * reach[card][square];
+        }
+    }
+    /* --- --- --- --- --- */
+
+    /* ------------------ */
+    /* --- Evaluation --- */
+    /**
+     * @return The score of the tracked position for the player to move, from the running sums.
+     */
+    public int evaluate(GameState gameState) {
+        BitBoard bitBoard = gameState.getBitBoard();
+        int playerId = gameState.getCurrentPlayerId();
+        int opponent = BitBoard.opponent(playerId);
+        int ownCards = gameState.getPlayer(playerId).getCardMask();
+        int enemyCards = gameState.getPlayer(opponent).getCardMask();
+        return placement[playerId] + mobility(playerId, ownCards) + masterSafety(bitBoard, playerId, enemyCards)
+                - placement[opponent] - mobility(opponent, enemyCards) - masterSafety(bitBoard, opponent, ownCards);
+    }
+
+    private int mobility(int playerId, int cardMask) {
+        int sum = 0;
+        for (int m = cardMask; m != 0; m &= m - 1) {
+            sum += mobility[playerId][Integer.numberOfTrailingZeros(m)];
+        }
+        return sum * MOBILITY_VALUE;
+    }
+
+    /**
+     * Computes the same score as {@link #evaluate} from the board alone, without
+     * the running sums. Reference for checks and benchmarks.
+     */
+    public static int evaluateFull(GameState gameState) {
+        BitBoard bitBoard = gameState.getBitBoard();
+        int playerId = gameState.getCurrentPlayerId();
+        int opponent = BitBoard.opponent(playerId);
+        int ownCards = gameState.getPlayer(playerId).getCardMask();
+        int enemyCards = gameState.getPlayer(opponent).getCardMask();
+        return evaluateSide(bitBoard, playerId, ownCards, enemyCards)
+                - evaluateSide(bitBoard, opponent, enemyCards, ownCards);
+    }
+
+    private static int evaluateSide(BitBoard bitBoard, int playerId, int ownCards, int enemyCards) {
+        int score = 0;
+        int reach = 0;
+        for (int m = bitBoard.getPieces(playerId); m != 0; m &= m - 1) {
+            int sq = Integer.numberOfTrailingZeros(m);
+            score += PLACEMENT[playerId][bitBoard.isMasterAt(sq) ? 1 : 0][sq];
+            for (int c = ownCards; c != 0; c &= c - 1) {
+                reach += REACH[playerId][Integer.numberOfTrailingZeros(c)][sq];
+            }
+        }
+        return score + reach * MOBILITY_VALUE + masterSafety(bitBoard, playerId, enemyCards);
+    }
+
+    // Penalty for the enemy pieces able to capture the master. A piece of the enemy
+    // reaches the master with a card exactly when the master reaches it with the same
+    // card played from its own side, so the masks are read from the master's square.
+    private static int masterSafety(BitBoard bitBoard, int playerId, int enemyCards) {
+        int master = bitBoard.getMasterSquare(playerId);
+        if (master < 0) {
+            return 0;
+        }
+        int attacks = 0;
+        for (int c = enemyCards; c != 0; c &= c - 1) {
+            attacks |= MoveTable.getTargets(Integer.numberOfTrailingZeros(c), playerId, master);
+        }
+        return -Integer.bitCount(attacks & bitBoard.getPieces(BitBoard.opponent(playerId))) * MASTER_ATTACKER_PENALTY;
+    }
+
+    // Number of king steps between two squares
+    static int templeDistance(int from, int to) {
+        return Math.max(Math.abs(BitBoard.row(from) - BitBoard.row(to)),
+                Math.abs(BitBoard.col(from) - BitBoard.col(to)));
+    }
+    /* --- --- --- --- --- */
+}
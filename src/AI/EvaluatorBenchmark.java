@@ -0,0 +1,135 @@
+package AI;
+
+import Entity.GameState;
+import Entity.MoveGenerator;
+import Entity.UndoRecord;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+/**
+ * Microbenchmark of the {@link Evaluator}: cost per call of the incremental
+ * evaluation against the full recomputation, cost of keeping the running sums
+ * up to date in make/unmake, and bytes allocated by the timed loops. It first
+ * checks on random games that both evaluations agree.
+ * <pre>
+ * java -cp out AI.EvaluatorBenchmark [positions] [rounds]
+ * </pre>
+ */
+public class EvaluatorBenchmark {
+    private static final long SUITE_SEED = 20240517L;
+
+    // Results are summed here so the JIT cannot drop the calls
+    private static long sink;
+
+    public static void main(String[] args) {
+        int positions = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+
+        List<GameState> suite = SearchBenchmark.positionSuite(SUITE_SEED, positions);
+        GameState[] states = suite.toArray(new GameState[0]);
+        Evaluator[] evaluators = new Evaluator[states.length];
+        int[][] moves = new int[states.length][MoveGenerator.MAX_MOVES];
+        int[] moveCounts = new int[states.length];
+        for (int i = 0; i < states.length; i++) {
+            evaluators[i] = new Evaluator();
+            evaluators[i].reset(states[i]);
+            moveCounts[i] = states[i].generateMoves(moves[i]);
+        }
+
+        int mismatches = checkConsistency(states, evaluators, moves, moveCounts);
+        System.out.println("Positions: " + states.length + ", rounds: " + rounds + ", mismatches: " + mismatches);
+        System.out.println("benchmark                 ns/call   bytes allocated");
+
+        for (int pass = 0; pass < 2; pass++) {
+            // The first pass warms up the JIT, only the second one is printed
+            boolean print = pass == 1;
+            report(print, "evaluate (incremental)", rounds * (long) states.length, () -> {
+                for (int r = 0; r < rounds; r++) {
+                    for (int i = 0; i < states.length; i++) {
+                        sink += evaluators[i].evaluate(states[i]);
+                    }
+                }
+            });
+            report(print, "evaluateFull", rounds * (long) states.length, () -> {
+                for (int r = 0; r < rounds; r++) {
+                    for (int i = 0; i < states.length; i++) {
+                        sink += Evaluator.evaluateFull(states[i]);
+                    }
+                }
+            });
+            long movesPlayed = 0;
+            for (int count : moveCounts) {
+                movesPlayed += count;
+            }
+            int moveRounds = Math.max(1, rounds / 10);
+            UndoRecord undo = new UndoRecord();
+            report(print, "make/unmake (plain)", moveRounds * movesPlayed, () -> {
+                for (int r = 0; r < moveRounds; r++) {
+                    for (int i = 0; i < states.length; i++) {
+                        for (int m = 0; m < moveCounts[i]; m++) {
+                            sink += states[i].makeMove(moves[i][m], undo);
+                            states[i].unmakeMove(undo);
+                        }
+                    }
+                }
+            });
+            report(print, "make/unmake (evaluator)", moveRounds * movesPlayed, () -> {
+                for (int r = 0; r < moveRounds; r++) {
+                    for (int i = 0; i < states.length; i++) {
+                        for (int m = 0; m < moveCounts[i]; m++) {
+                            sink += evaluators[i].makeMove(states[i], moves[i][m], undo);
+                            evaluators[i].unmakeMove(states[i], undo);
+                        }
+                    }
+                }
+            });
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+
+    // Plays every move of every position and compares both evaluations after it
+    private static int checkConsistency(GameState[] states, Evaluator[] evaluators, int[][] moves, int[] moveCounts) {
+        int mismatches = 0;
+        UndoRecord undo = new UndoRecord();
+        for (int i = 0; i < states.length; i++) {
+            for (int m = 0; m < moveCounts[i]; m++) {
+                evaluators[i].makeMove(states[i], moves[i][m], undo);
+                if (evaluators[i].evaluate(states[i]) != Evaluator.evaluateFull(states[i])) {
+                    mismatches++;
+                }
+                evaluators[i].unmakeMove(states[i], undo);
+            }
+            if (evaluators[i].evaluate(states[i]) != Evaluator.evaluateFull(states[i])) {
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+
+    private static void report(boolean print, String name, long calls, Runnable loop) {
+        // Reading the counter allocates too: measure that once and take it off
+        long calibration = allocatedBytes();
+        long allocatedBefore = allocatedBytes();
+        long overhead = allocatedBefore - calibration;
+        long start = System.nanoTime();
+        loop.run();
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore - overhead;
+        if (print) {
+            System.out.printf("%-24s %8.1f %17s%n", name, (double) elapsed / calls,
+                    allocatedBefore < 0 ? "n/a" : Long.toString(allocated));
+        }
+    }
+
+    // Bytes allocated so far by this thread, -1 if the JVM does not tell
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,159 @@
+package AI;
+
+import Entity.GameState;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Lazy SMP parallel search. Every thread runs its own {@link SearchEngine} on the
+ * same root position; they only communicate through a shared
+ * {@link TranspositionTable}. Helper threads search every other depth from
+ * different root moves, so the table fills with results the main thread then
+ * finds ready. The main engine runs on the calling thread and its result is the
+ * one reported; helpers are stopped as soon as it returns.
+ */
+public class LazySmpSearch implements Searcher, Closeable {
+    private final SearchEngine mainEngine;
+    private final SearchEngine[] helpers;
+    private final ExecutorService pool;
+
+    /* ------------------- */
+    /* --- Constructor --- */
+    public LazySmpSearch(int threadCount) {
+        this(threadCount, new TranspositionTable());
+    }
+
+    /**
+     * @param threadCount Total number of search threads, the calling thread included.
+     * @param table The table shared by all threads.
+     */
+    public LazySmpSearch(int threadCount, TranspositionTable table) {
+        if (threadCount <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive.");
+        }
+        if (table == null) {
+            throw new IllegalArgumentException("Transposition table cannot be null.");
+        }
+        this.mainEngine = new SearchEngine(new Evaluator(), table);
+        this.helpers = new SearchEngine[threadCount - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            helpers[i] = new SearchEngine(new Evaluator(), table);
+            helpers[i].setHelperId(i + 1);
+        }
+        this.pool = helpers.length == 0 ? null : Executors.newFixedThreadPool(helpers.length, runnable -> {
+            Thread thread = new Thread(runnable, "onitama-smp-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    /* --- --- --- --- --- */
+
+    /* -------------- */
+    /* --- Search --- */
+    @Override
+    public SearchResult search(GameState root, long timeBudgetMillis) {
+        return search(root, SearchEngine.MAX_PLY - 1, timeBudgetMillis);
+    }
+
+    /**
+     * Searches until the main thread completes the given depth or the time runs out.
+     */
+    public SearchResult search(GameState root, int maxDepth, long timeBudgetMillis) {
+        // Each helper copies the root itself, the caller's state is only read
+        GameState snapshot = new GameState(root);
+        List<Future<SearchResult>> running = new ArrayList<>(helpers.length);
+        for (SearchEngine helper : helpers) {
+            running.add(pool.submit(() -> helper.search(snapshot, maxDepth, timeBudgetMillis)));
+        }
+
+        SearchResult result = mainEngine.search(snapshot, maxDepth, timeBudgetMillis);
+
+        long nodes = result.getNodes();
+        for (int i = 0; i < helpers.length; i++) {
+            nodes += stopHelper(helpers[i], running.get(i));
+        }
+        return new SearchResult(result.getBestMove(), result.getScore(), result.getDepth(),
+                nodes, result.getTimeMillis(), result.getPrincipalVariation());
+    }
+
+    // Stops a helper and waits for it. A helper that had not started yet when the
+    // main search ended resets its stop flag, so keep asking until it returns.
+    private static long stopHelper(SearchEngine helper, Future<SearchResult> future) {
+        while (true) {
+            helper.stop();
+            try {
+                return future.get(1, TimeUnit.MILLISECONDS).getNodes();
+            } catch (TimeoutException e) {
+                // Not finished yet, stop it again
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return 0;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search helper failed.", e.getCause());
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        mainEngine.stop();
+        for (SearchEngine helper : helpers) {
+            helper.stop();
+        }
+    }
+    /* --- --- --- --- --- */
+
+    /**
+     * @param tablebase Endgame tablebases probed by every thread, null to search without them.
+     */
+    public void setTablebase(Tablebase tablebase) {
+        mainEngine.setTablebase(tablebase);
+        for (SearchEngine helper : helpers) {
+            helper.setTablebase(tablebase);
+        }
+    }
+
+    /**
+     * Reports the iterations of the main thread.
+     */
+    @Override
+    public void setSearchListener(SearchListener listener) {
+        mainEngine.setSearchListener(listener);
+    }
+
+    /**
+     * @param options The search enhancements used by every thread.
+     */
+    public void setOptions(SearchOptions options) {
+        mainEngine.setOptions(options);
+        for (SearchEngine helper : helpers) {
+            helper.setOptions(options);
+        }
+    }
+
+    public int getThreadCount() {
+        return helpers.length + 1;
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return mainEngine.getTranspositionTable();
+    }
+
+    /**
+     * Stops the helper threads. The search cannot be used afterwards.
+     */
+    @Override
+    public void close() {
+        stop();
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package AI;
+
+import Entity.Move;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Node of the tree shared by the {@link MonteCarloTreeSearch} workers.
+ * Statistics are updated with atomic operations and the children array is
+ * published once with a compare-and-set, so no lock is taken while searching.
+ */
+class MctsNode {
+    private static final VarHandle VISITS;
+    private static final VarHandle SCORE;
+    private static final VarHandle CHILDREN;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            VISITS = lookup.findVarHandle(MctsNode.class, "visits", int.class);
+            SCORE = lookup.findVarHandle(MctsNode.class, "score", long.class);
+            CHILDREN = lookup.findVarHandle(MctsNode.class, "children", MctsNode[].class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    final int move; // Move leading to this node, Move.NONE for the root and for a pass
+    final int playerId; // Player who played the move
+    volatile int winner; // Player who won when the move was played, 0 if the game goes on
+
+    private volatile int visits;
+    private volatile long score; // Half points won by playerId: 2 per win, 1 per draw
+    private volatile MctsNode[] children;
+
+    MctsNode(int move, int playerId) {
+        this.move = move;
+        this.playerId = playerId;
+    }
+
+    int getVisits() {
+        return visits;
+    }
+
+    long getScore() {
+        return score;
+    }
+
+    MctsNode[] getChildren() {
+        return children;
+    }
+
+    boolean isPass() {
+        return move == Move.NONE;
+    }
+
+    // Counted when a worker goes through the node, before its playout result is
+    // known: until then the visit acts as a virtual loss that steers other workers away
+    void addVisit() {
+        VISITS.getAndAdd(this, 1);
+    }
+
+    void addScore(int halfPoints) {
+        SCORE.getAndAdd(this, (long) halfPoints);
+    }
+
+    /**
+     * Publishes the children unless another worker expanded the node first.
+     * @return The children of the node.
+     */
+    MctsNode[] expand(MctsNode[] newChildren) {
+        if (CHILDREN.compareAndSet(this, null, newChildren)) {
+            return newChildren;
+        }
+        return children;
+    }
+}
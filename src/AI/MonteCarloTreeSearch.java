@@ -0,0 +1,408 @@
+package AI;
+
+import Entity.GameState;
+import Entity.Move;
+import Entity.MoveGenerator;
+import Entity.UndoRecord;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parallel UCT Monte Carlo Tree Search. Worker threads share one tree and use
+ * virtual loss (see {@link MctsNode#addVisit}) to spread over different lines.
+ * Each worker walks the tree and plays its random games on its own copy of the
+ * root with {@link GameState#makeMove}/{@link GameState#unmakeMove}, so a
+ * playout allocates nothing; only new tree nodes are allocated.
+ * The move reported is the most visited root move.
+ */
+public class MonteCarloTreeSearch implements Searcher, Closeable {
+    public static final double DEFAULT_EXPLORATION = 1.0;
+    public static final int DEFAULT_MAX_NODES = 2_000_000;
+    // Playouts longer than this are scored as draws (cards cycle, so games can loop)
+    public static final int MAX_PLAYOUT_PLIES = 200;
+    private static final int MAX_TREE_DEPTH = 128;
+    // Scale of the reported score: a certain win is worth this much
+    private static final int SCORE_SCALE = 1000;
+    // Time between two progress reports
+    private static final long PROGRESS_INTERVAL_NANOS = 250_000_000L;
+
+    private final int threadCount;
+    private final PlayoutPolicy policy;
+    private final double exploration;
+    private final int maxNodes;
+    private final ExecutorService pool;
+    private final SplittableRandom seedRandom;
+
+    private volatile boolean stopRequested;
+    private volatile long lastPlayoutsPerSecond;
+    private volatile SearchListener listener = SearchListener.NONE;
+
+    /* ------------------- */
+    /* --- Constructor --- */
+    public MonteCarloTreeSearch(int threadCount) {
+        this(threadCount, PlayoutPolicy.HEURISTIC, DEFAULT_EXPLORATION, DEFAULT_MAX_NODES, new SplittableRandom());
+    }
+
+    /**
+     * @param threadCount Number of workers, the calling thread included.
+     * @param exploration UCT exploration constant.
+     * @param maxNodes Tree size limit; once reached, leaves are no longer expanded.
+     * @param random Source of the workers' random generators.
+     */
+    public MonteCarloTreeSearch(int threadCount, PlayoutPolicy policy, double exploration, int maxNodes,
+            SplittableRandom random) {
+        if (threadCount <= 0 || maxNodes <= 0) {
+            throw new IllegalArgumentException("Thread count and node limit must be positive.");
+        }
+        if (policy == null || random == null) {
+            throw new IllegalArgumentException("Playout policy and random generator cannot be null.");
+        }
+        this.threadCount = threadCount;
+        this.policy = policy;
+        this.exploration = exploration;
+        this.maxNodes = maxNodes;
+        this.seedRandom = random;
+        this.pool = threadCount == 1 ? null : Executors.newFixedThreadPool(threadCount - 1, runnable -> {
+            Thread thread = new Thread(runnable, "onitama-mcts-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    /* --- --- --- --- --- */
+
+    /* -------------- */
+    /* --- Search --- */
+    @Override
+    public SearchResult search(GameState root, long timeBudgetMillis) {
+        long start = System.nanoTime();
+        long deadline = start + timeBudgetMillis * 1_000_000L;
+        stopRequested = false;
+
+        GameState snapshot = new GameState(root);
+        int[] rootMoves = new int[MoveGenerator.MAX_MOVES];
+        if (snapshot.isGameOver() || snapshot.generateMoves(rootMoves) == 0) {
+            return new SearchResult(Move.NONE, 0, 0, 0, 0, new int[0]);
+        }
+
+        MctsNode rootNode = new MctsNode(Move.NONE, 0);
+        AtomicInteger nodeCount = new AtomicInteger(1);
+        Worker[] workers = new Worker[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            workers[i] = new Worker(snapshot, rootNode, nodeCount, seedRandom.split(), deadline);
+        }
+        workers[0].reportProgress(start, workers);
+
+        List<Future<?>> running = new ArrayList<>(threadCount - 1);
+        for (int i = 1; i < threadCount; i++) {
+            running.add(pool.submit(workers[i]));
+        }
+        workers[0].run();
+        stopRequested = true;
+        for (Future<?> future : running) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("MCTS worker failed.", e.getCause());
+            }
+        }
+
+        long playouts = 0;
+        int maxDepth = 0;
+        for (Worker worker : workers) {
+            playouts += worker.playouts;
+            maxDepth = Math.max(maxDepth, worker.maxDepth);
+        }
+        long elapsed = (System.nanoTime() - start) / 1_000_000L;
+        lastPlayoutsPerSecond = elapsed > 0 ? playouts * 1000 / elapsed : playouts * 1000;
+
+        if (rootNode.getChildren() == null) {
+            // Stopped before the first iteration: play the first legal move
+            return new SearchResult(rootMoves[0], 0, 0, playouts, elapsed, new int[] { rootMoves[0] });
+        }
+        MctsNode best = mostVisited(rootNode);
+        return new SearchResult(best.move, score(best), maxDepth, playouts, elapsed, principalVariation(rootNode));
+    }
+
+    @Override
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Reports the most visited move and its line periodically while searching.
+     */
+    @Override
+    public void setSearchListener(SearchListener listener) {
+        this.listener = listener != null ? listener : SearchListener.NONE;
+    }
+
+    // Win rate of the node's move mapped to [-SCORE_SCALE, SCORE_SCALE]
+    private static int score(MctsNode node) {
+        if (node.winner != 0) {
+            return node.winner == node.playerId ? SearchEngine.WIN_SCORE - 1 : -SearchEngine.WIN_SCORE + 1;
+        }
+        int visits = node.getVisits();
+        if (visits == 0) {
+            return 0;
+        }
+        return (int) ((node.getScore() - visits) * SCORE_SCALE / visits);
+    }
+
+    private static MctsNode mostVisited(MctsNode node) {
+        MctsNode[] children = node.getChildren();
+        MctsNode best = null;
+        for (MctsNode child : children) {
+            if (child.winner != 0 && child.winner == child.playerId) {
+                return child; // A move that wins on the spot
+            }
+            if (best == null || child.getVisits() > best.getVisits()) {
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    private static int[] principalVariation(MctsNode root) {
+        List<Integer> line = new ArrayList<>();
+        MctsNode node = root;
+        while (node.getChildren() != null && line.size() < MAX_TREE_DEPTH) {
+            node = mostVisited(node);
+            if (node.isPass() || node.getVisits() == 0) {
+                break;
+            }
+            line.add(node.move);
+        }
+        int[] pv = new int[line.size()];
+        for (int i = 0; i < pv.length; i++) {
+            pv[i] = line.get(i);
+        }
+        return pv;
+    }
+    /* --- --- --- --- --- */
+
+    /* ------------------------- */
+    /* --- Getters & Setters --- */
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public PlayoutPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * @return Playouts per second of the last search, all workers together.
+     */
+    public long getLastPlayoutsPerSecond() {
+        return lastPlayoutsPerSecond;
+    }
+    /* --- --- --- --- --- */
+
+    /**
+     * Stops the worker threads. The search cannot be used afterwards.
+     */
+    @Override
+    public void close() {
+        stop();
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    /* -------------- */
+    /* --- Worker --- */
+    private final class Worker implements Runnable {
+        private static final int TIME_CHECK_INTERVAL = 64;
+
+        private final GameState state;
+        private final MctsNode root;
+        private final AtomicInteger nodeCount;
+        private final SplittableRandom random;
+        private final long deadline;
+
+        // Preallocated for the longest line: tree path followed by the playout
+        private final MctsNode[] path = new MctsNode[MAX_TREE_DEPTH + 1];
+        private final UndoRecord[] undoRecords = new UndoRecord[MAX_TREE_DEPTH + MAX_PLAYOUT_PLIES + 1];
+        private final boolean[] passed = new boolean[MAX_TREE_DEPTH + MAX_PLAYOUT_PLIES + 1];
+        private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+        private long playouts;
+        private int maxDepth;
+        // Only set on the worker of the calling thread, which reports the progress
+        private Worker[] reported;
+        private long start;
+        private long nextReport = Long.MAX_VALUE;
+
+        Worker(GameState snapshot, MctsNode root, AtomicInteger nodeCount, SplittableRandom random, long deadline) {
+            this.state = new GameState(snapshot);
+            this.root = root;
+            this.nodeCount = nodeCount;
+            this.random = random;
+            this.deadline = deadline;
+            for (int i = 0; i < undoRecords.length; i++) {
+                undoRecords[i] = new UndoRecord();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (!stopRequested) {
+                for (int i = 0; i < TIME_CHECK_INTERVAL; i++) {
+                    iterate();
+                }
+                long now = System.nanoTime();
+                if (now > deadline) {
+                    stopRequested = true;
+                } else if (now > nextReport) {
+                    nextReport = now + PROGRESS_INTERVAL_NANOS;
+                    report(now);
+                }
+            }
+        }
+
+        void reportProgress(long start, Worker[] workers) {
+            this.start = start;
+            this.reported = workers;
+            this.nextReport = start + PROGRESS_INTERVAL_NANOS;
+        }
+
+        // The other workers' counters are read without synchronisation: close enough for a report
+        private void report(long now) {
+            long total = 0;
+            int depth = 0;
+            for (Worker worker : reported) {
+                total += worker.playouts;
+                depth = Math.max(depth, worker.maxDepth);
+            }
+            MctsNode best = mostVisited(root);
+            listener.onProgress(new SearchResult(best.move, score(best), depth, total,
+                    (now - start) / 1_000_000L, principalVariation(root)));
+        }
+
+        // One selection, expansion, playout and backpropagation
+        private void iterate() {
+            root.addVisit();
+            path[0] = root;
+            int depth = 0;
+            int plies = 0;
+            int winner = 0;
+
+            // Selection: descend while the node is expanded
+            MctsNode node = root;
+            while (winner == 0 && depth < MAX_TREE_DEPTH) {
+                MctsNode[] children = node.getChildren();
+                if (children == null) {
+                    if (node.getVisits() < 2 && node != root) {
+                        break; // Expand only nodes visited before
+                    }
+                    children = expand(node);
+                    if (children == null) {
+                        break;
+                    }
+                }
+                node = select(node, children);
+                node.addVisit();
+                path[++depth] = node;
+                winner = play(node.move, plies++);
+                if (winner != 0) {
+                    node.winner = winner;
+                }
+            }
+            maxDepth = Math.max(maxDepth, depth);
+
+            // Playout
+            if (winner == 0) {
+                while (plies < undoRecords.length - 1) {
+                    int count = state.generateMoves(moves);
+                    int move = count == 0 ? Move.NONE : moves[policy.choose(state, moves, count, random)];
+                    winner = play(move, plies++);
+                    if (winner != 0 || plies - depth >= MAX_PLAYOUT_PLIES) {
+                        break;
+                    }
+                }
+            }
+            playouts++;
+
+            // Backpropagation: score each move for the player who played it
+            for (int i = 1; i <= depth; i++) {
+                MctsNode visited = path[i];
+                visited.addScore(winner == 0 ? 1 : (winner == visited.playerId ? 2 : 0));
+            }
+
+            while (plies > 0) {
+                plies--;
+                if (passed[plies]) {
+                    state.switchPlayerTurn();
+                } else {
+                    state.unmakeMove(undoRecords[plies]);
+                }
+            }
+        }
+
+        // Plays a move (Move.NONE passes) and returns the winner, 0 if the game goes on
+        private int play(int move, int ply) {
+            passed[ply] = move == Move.NONE;
+            if (move == Move.NONE) {
+                state.switchPlayerTurn();
+                return 0;
+            }
+            return state.makeMove(move, undoRecords[ply]);
+        }
+
+        private MctsNode[] expand(MctsNode node) {
+            if (nodeCount.get() >= maxNodes) {
+                return null;
+            }
+            int playerId = state.getCurrentPlayerId();
+            int count = state.generateMoves(moves);
+            MctsNode[] children;
+            if (count == 0) {
+                children = new MctsNode[] { new MctsNode(Move.NONE, playerId) };
+            } else {
+                children = new MctsNode[count];
+                for (int i = 0; i < count; i++) {
+                    children[i] = new MctsNode(moves[i], playerId);
+                }
+            }
+            MctsNode[] published = node.expand(children);
+            if (published == children) {
+                nodeCount.addAndGet(children.length);
+            }
+            return published;
+        }
+
+        // UCT; a move known to win is always taken
+        private MctsNode select(MctsNode parent, MctsNode[] children) {
+            double logParent = Math.log(Math.max(1, parent.getVisits()));
+            MctsNode best = children[0];
+            double bestValue = Double.NEGATIVE_INFINITY;
+            int offset = random.nextInt(children.length); // Breaks ties between unvisited children
+            for (int k = 0; k < children.length; k++) {
+                MctsNode child = children[(k + offset) % children.length];
+                if (child.winner != 0 && child.winner == child.playerId) {
+                    return child;
+                }
+                int visits = child.getVisits();
+                if (visits == 0) {
+                    return child;
+                }
+                double value = child.getScore() / (2.0 * visits) + exploration * Math.sqrt(logParent / visits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+    }
+    /* --- --- --- --- --- */
+}
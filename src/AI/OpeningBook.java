@@ -0,0 +1,124 @@
+package AI;
+
+import Entity.Move;
+import Entity.Zobrist;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Opening book written by {@link OpeningBookBuilder}, memory-mapped read-only.
+ * <p>
+ * The file is a header followed by fixed-size records sorted by position key
+ * ({@link Zobrist}, so the deal of the cards is part of the key) and then by move:
+ * <pre>
+ * long key | int move | int games | int half points won by the player to move
+ * </pre>
+ * A lookup is a binary search over the mapped records and allocates nothing.
+ */
+public class OpeningBook {
+    static final int MAGIC = 0x4F4E424B; // "ONBK"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 20;
+    private static final double Z_95 = 1.96;
+
+    private final MappedByteBuffer records;
+    private final int recordCount;
+
+    /* ------------------- */
+    /* --- Constructor --- */
+    public OpeningBook(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not an Onitama opening book: " + file);
+            }
+            this.recordCount = buffer.getInt(8);
+            if (channel.size() != HEADER_SIZE + (long) recordCount * RECORD_SIZE) {
+                throw new IOException("Truncated opening book: " + file);
+            }
+            this.records = buffer;
+        }
+    }
+    /* --- --- --- --- --- */
+
+    /* -------------- */
+    /* --- Lookup --- */
+    /**
+     * @return The book move with the best score in the position, {@link Move#NONE} if the
+     *         position is not in the book. Moves are ranked by the lower bound of their
+     *         score, so that a move played in a few lucky games does not beat a move
+     *         with a slightly lower score over many games.
+     */
+    public int probe(long key) {
+        int best = Move.NONE;
+        double bestBound = -1;
+        for (int i = firstRecord(key); i < recordCount && getKey(i) == key; i++) {
+            double bound = scoreLowerBound(getHalfPoints(i), getGames(i));
+            if (bound > bestBound) {
+                best = getMove(i);
+                bestBound = bound;
+            }
+        }
+        return best;
+    }
+
+    // Lower bound of the 95% Wilson interval of the score, between 0 and 1
+    private static double scoreLowerBound(long halfPoints, int games) {
+        double score = halfPoints / (2.0 * games);
+        double z2 = Z_95 * Z_95;
+        double center = score + z2 / (2 * games);
+        double margin = Z_95 * Math.sqrt(score * (1 - score) / games + z2 / (4.0 * games * games));
+        return (center - margin) / (1 + z2 / games);
+    }
+
+    /**
+     * @return The number of book games in which the position was reached.
+     */
+    public int getGames(long key) {
+        int games = 0;
+        for (int i = firstRecord(key); i < recordCount && getKey(i) == key; i++) {
+            games += getGames(i);
+        }
+        return games;
+    }
+
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    // Index of the first record with the key, or of the first greater key
+    private int firstRecord(long key) {
+        int lo = 0;
+        int hi = recordCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (getKey(mid) < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private long getKey(int record) {
+        return records.getLong(HEADER_SIZE + record * RECORD_SIZE);
+    }
+
+    private int getMove(int record) {
+        return records.getInt(HEADER_SIZE + record * RECORD_SIZE + 8);
+    }
+
+    private int getGames(int record) {
+        return records.getInt(HEADER_SIZE + record * RECORD_SIZE + 12);
+    }
+
+    private long getHalfPoints(int record) {
+        return records.getInt(HEADER_SIZE + record * RECORD_SIZE + 16);
+    }
+    /* --- --- --- --- --- */
+}
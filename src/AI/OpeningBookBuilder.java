@@ -0,0 +1,303 @@
+package AI;
+
+import Entity.CardDistribution;
+import Entity.GameState;
+import Entity.MoveGenerator;
+import Entity.UndoRecord;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds an {@link OpeningBook} from engine self-play. Book keys include the deal
+ * of the cards, and there are {@link CardDistribution#COUNT} deals, so games from
+ * random deals almost never share a position. The builder therefore samples a
+ * number of deals and plays each of them many times (50 by default); the book
+ * only covers those deals. Every engine move played in the first plies of a game
+ * is recorded with the final result, and the records are aggregated per
+ * (position, move) and written sorted by position key. Each game deals and explores from its own generator,
+ * seeded from the build seed and the game's index, and the engine forgets earlier
+ * games, so a build with a depth limit (and enough time to reach it) gives the same
+ * book for the same seed, whatever the thread count.
+ * <pre>
+ * java -cp out AI.OpeningBookBuilder &lt;bookFile&gt; [--games N] [--plies P] [--time ms] [--depth d] [--deals D] [--threads T] [--min-games G] [--seed s]
+ * </pre>
+ */
+public class OpeningBookBuilder {
+    // Games still going after this many plies count as draws
+    private static final int MAX_GAME_PLIES = 200;
+    // Games per deal when the number of deals is not given
+    public static final int DEFAULT_GAMES_PER_DEAL = 50;
+    // Probability of a random move in the book plies, so that games do not all follow one line.
+    // Random moves only widen the tree: they are not recorded, so they never become book moves.
+    private static final double EXPLORATION = 0.1;
+
+    private final int bookPlies;
+    private final int depth;
+    private final long timePerMoveMillis;
+    private final int threads;
+    private final List<Sample> samples = new ArrayList<>();
+    private final AtomicInteger gamesPlayed = new AtomicInteger();
+
+    /* ------------------- */
+    /* --- Constructor --- */
+    /**
+     * @param bookPlies Number of plies recorded at the start of each game.
+     * @param timePerMoveMillis Search time of the engine for each move.
+     * @param threads Number of games played at the same time.
+     */
+    public OpeningBookBuilder(int bookPlies, long timePerMoveMillis, int threads) {
+        this(bookPlies, SearchEngine.MAX_PLY - 1, timePerMoveMillis, threads);
+    }
+
+    /**
+     * @param bookPlies Number of plies recorded at the start of each game.
+     * @param depth Search depth limit of each move; with enough time, the games are reproducible.
+     * @param timePerMoveMillis Search time of the engine for each move.
+     * @param threads Number of games played at the same time.
+     */
+    public OpeningBookBuilder(int bookPlies, int depth, long timePerMoveMillis, int threads) {
+        if (bookPlies <= 0 || timePerMoveMillis <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("Book plies, time per move and threads must be positive.");
+        }
+        if (depth <= 0 || depth >= SearchEngine.MAX_PLY) {
+            throw new IllegalArgumentException("Depth must be between 1 and " + (SearchEngine.MAX_PLY - 1) + ".");
+        }
+        this.bookPlies = bookPlies;
+        this.depth = depth;
+        this.timePerMoveMillis = timePerMoveMillis;
+        this.threads = threads;
+    }
+    /* --- --- --- --- --- */
+
+    /* ----------------- */
+    /* --- Self-play --- */
+    /**
+     * Plays a batch of games, {@link #DEFAULT_GAMES_PER_DEAL} per deal, and adds their moves to the book.
+     */
+    public void playGames(int games, long seed) {
+        playGames(games, Math.max(1, games / DEFAULT_GAMES_PER_DEAL), seed);
+    }
+
+    /**
+     * Plays a batch of games on a sample of deals, each deal about games / deals times,
+     * and adds their moves to the book.
+     */
+    public void playGames(int games, int deals, long seed) {
+        if (games <= 0 || deals <= 0) {
+            throw new IllegalArgumentException("Games and deals must be positive.");
+        }
+        // One deal and one seed per game, so that a game does not depend on which thread plays it
+        SplittableRandom seeds = new SplittableRandom(seed);
+        int[] sampledDeals = new int[deals];
+        for (int i = 0; i < deals; i++) {
+            sampledDeals[i] = seeds.nextInt(CardDistribution.COUNT);
+        }
+        long[] gameSeeds = new long[games];
+        for (int i = 0; i < games; i++) {
+            gameSeeds[i] = seeds.nextLong();
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        AtomicInteger next = new AtomicInteger();
+        List<Future<List<Sample>>> running = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            running.add(pool.submit(() -> {
+                SearchEngine engine = new SearchEngine();
+                List<Sample> played = new ArrayList<>();
+                int game;
+                while ((game = next.getAndIncrement()) < games) {
+                    engine.newGame();
+                    playGame(engine, sampledDeals[game % deals], new SplittableRandom(gameSeeds[game]), played);
+                    gamesPlayed.incrementAndGet();
+                }
+                return played;
+            }));
+        }
+        try {
+            for (Future<List<Sample>> future : running) {
+                List<Sample> played = future.get();
+                synchronized (samples) {
+                    samples.addAll(played);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Self-play interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Self-play game failed.", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void playGame(SearchEngine engine, int distribution, SplittableRandom random, List<Sample> played) {
+        GameState gameState = GameState.newDeal(distribution);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        UndoRecord undo = new UndoRecord();
+        int first = played.size();
+
+        int winner = 0;
+        for (int ply = 0; ply < MAX_GAME_PLIES && winner == 0; ply++) {
+            int count = gameState.generateMoves(moves);
+            if (count == 0) {
+                gameState.switchPlayerTurn();
+                continue;
+            }
+            int move;
+            boolean explored = ply < bookPlies && random.nextDouble() < EXPLORATION;
+            if (explored) {
+                move = moves[random.nextInt(count)];
+            } else {
+                move = engine.search(gameState, depth, timePerMoveMillis).getBestMove();
+            }
+            if (ply < bookPlies && !explored) {
+                played.add(new Sample(gameState.getZobristKey(), move, gameState.getCurrentPlayerId()));
+            }
+            winner = gameState.makeMove(move, undo);
+        }
+
+        for (int i = first; i < played.size(); i++) {
+            Sample sample = played.get(i);
+            sample.halfPoints = winner == 0 ? 1 : (winner == sample.playerId ? 2 : 0);
+        }
+    }
+
+    public int getGamesPlayed() {
+        return gamesPlayed.get();
+    }
+    /* --- --- --- --- --- */
+
+    /* ------------- */
+    /* --- Write --- */
+    /**
+     * Writes the book: one record per (position, move) played at least {@code minGames} times.
+     * @return The number of records written.
+     */
+    public int write(Path file, int minGames) throws IOException {
+        List<Sample> sorted;
+        synchronized (samples) {
+            sorted = new ArrayList<>(samples);
+        }
+        Collections.sort(sorted);
+
+        ByteBuffer buffer = ByteBuffer.allocate(OpeningBook.RECORD_SIZE * 4096);
+        int records = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.position(OpeningBook.HEADER_SIZE);
+            for (int i = 0; i < sorted.size(); ) {
+                Sample sample = sorted.get(i);
+                int games = 0;
+                int halfPoints = 0;
+                for (; i < sorted.size() && sorted.get(i).compareTo(sample) == 0; i++) {
+                    games++;
+                    halfPoints += sorted.get(i).halfPoints;
+                }
+                if (games < minGames) {
+                    continue;
+                }
+                if (!buffer.hasRemaining()) {
+                    flush(channel, buffer);
+                }
+                buffer.putLong(sample.key).putInt(sample.move).putInt(games).putInt(halfPoints);
+                records++;
+            }
+            flush(channel, buffer);
+
+            ByteBuffer header = ByteBuffer.allocate(OpeningBook.HEADER_SIZE);
+            header.putInt(OpeningBook.MAGIC).putInt(OpeningBook.VERSION).putInt(records);
+            header.clear();
+            channel.position(0);
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+        }
+        return records;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+    /* --- --- --- --- --- */
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: OpeningBookBuilder <bookFile> [--games N] [--plies P] [--time ms] [--depth d] [--deals D] [--threads T] [--min-games G] [--seed s]");
+            return;
+        }
+        Path file = Paths.get(args[0]);
+        int games = 1000;
+        int plies = 8;
+        long time = 50;
+        int depth = SearchEngine.MAX_PLY - 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int deals = 0;
+        int minGames = 2;
+        long seed = System.nanoTime();
+        for (int i = 1; i < args.length; i++) {
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            switch (args[i]) {
+                case "--games": games = Integer.parseInt(args[++i]); break;
+                case "--plies": plies = Integer.parseInt(args[++i]); break;
+                case "--time": time = Long.parseLong(args[++i]); break;
+                case "--depth": depth = Integer.parseInt(args[++i]); break;
+                case "--deals": deals = Integer.parseInt(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--min-games": minGames = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                default: throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        OpeningBookBuilder builder = new OpeningBookBuilder(plies, depth, time, threads);
+        long start = System.nanoTime();
+        if (deals <= 0) {
+            deals = Math.max(1, games / DEFAULT_GAMES_PER_DEAL);
+        }
+        builder.playGames(games, deals, seed);
+        int records = builder.write(file, minGames);
+        System.out.println(builder.getGamesPlayed() + " games on " + deals + " deals, " + records + " records written to " + file
+                + " (" + (System.nanoTime() - start) / 1_000_000L + " ms)");
+    }
+
+    /* -------------- */
+    /* --- Sample --- */
+    // A move played in a position, ordered by position key then move
+    private static final class Sample implements Comparable<Sample> {
+        final long key;
+        final int move;
+        final int playerId;
+        int halfPoints;
+
+        Sample(long key, int move, int playerId) {
+            this.key = key;
+            this.move = move;
+            this.playerId = playerId;
+        }
+
+        @Override
+        public int compareTo(Sample other) {
+            int byKey = Long.compare(key, other.key);
+            return byKey != 0 ? byKey : Integer.compare(move, other.move);
+        }
+    }
+    /* --- --- --- --- --- */
+}
@@ -0,0 +1,54 @@
+package AI;
+
+import Entity.BitBoard;
+import Entity.GameState;
+import Entity.Move;
+import java.util.SplittableRandom;
+
+/**
+ * Chooses the moves of the random games played by {@link MonteCarloTreeSearch}.
+ * Called once per playout ply, so implementations must not allocate.
+ */
+public interface PlayoutPolicy {
+    // Every legal move with the same probability
+    PlayoutPolicy UNIFORM = (gameState, moves, count, random) -> random.nextInt(count);
+
+    // Plays a winning move when there is one, otherwise prefers captures
+    PlayoutPolicy HEURISTIC = new PlayoutPolicy() {
+        @Override
+        public int choose(GameState gameState, int[] moves, int count, SplittableRandom random) {
+            BitBoard bitBoard = gameState.getBitBoard();
+            int playerId = gameState.getCurrentPlayerId();
+            int opponentMaster = bitBoard.getMasterSquare(BitBoard.opponent(playerId));
+            int ownMaster = bitBoard.getMasterSquare(playerId);
+            int opponentTemple = BitBoard.getTempleArch(BitBoard.opponent(playerId));
+            int captures = 0;
+            for (int i = 0; i < count; i++) {
+                int move = moves[i];
+                if (Move.getTo(move) == opponentMaster
+                        || (Move.getFrom(move) == ownMaster && Move.getTo(move) == opponentTemple)) {
+                    return i;
+                }
+                if (Move.isCapture(move)) {
+                    captures++;
+                }
+            }
+            if (captures > 0 && random.nextBoolean()) {
+                int pick = random.nextInt(captures);
+                for (int i = 0; i < count; i++) {
+                    if (Move.isCapture(moves[i]) && pick-- == 0) {
+                        return i;
+                    }
+                }
+            }
+            return random.nextInt(count);
+        }
+    };
+
+    /**
+     * @param moves The legal moves of the player to move, from {@link GameState#generateMoves}.
+     * @param count Number of moves, at least 1.
+     * @return The index of the move to play.
+     */
+    int choose(GameState gameState, int[] moves, int count, SplittableRandom random);
+}
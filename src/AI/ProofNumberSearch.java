@@ -0,0 +1,444 @@
+package AI;
+
+import Entity.BitBoard;
+import Entity.GameState;
+import Entity.Move;
+import Entity.MoveGenerator;
+import Entity.MoveTable;
+import Entity.PackedPosition;
+import Entity.UndoRecord;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Solver proving or disproving a forced win for the player to move, by Way of
+ * the Stone (capturing the master) or Way of the Stream (master on the enemy
+ * temple), within a ply limit. It runs depth-first proof-number search (df-pn)
+ * with the 1+&epsilon; threshold trick and a bounded {@link ProofTable}.
+ * <p>
+ * The remaining depth is part of every table key, so the searched graph has no
+ * cycles even though Onitama positions repeat. The limit is deepened one
+ * winner's move at a time, so the first win proven is the shortest one. Moves are
+ * explored with {@link GameState#makeMove}/{@link GameState#unmakeMove} on a copy
+ * of the position, and the children of each node are kept in per-ply buffers, so
+ * the search loop does not allocate. A solver is not thread-safe.
+ * <pre>
+ * java -cp out AI.ProofNumberSearch [packedPosition(hex)...] [--plies N] [--hash MB] [--time ms] [--suite n]
+ * </pre>
+ */
+public class ProofNumberSearch {
+    public static final int DEFAULT_MAX_PLIES = 15;
+    private static final int MAX_PLY = SearchEngine.MAX_PLY;
+    private static final int INFINITY = Integer.MAX_VALUE;
+    // Largest proof or disproof number that still means "unknown"
+    private static final int MAX_FINITE = INFINITY - 1;
+    // Child thresholds exceed the second best child by this factor, so the search
+    // does not switch back and forth between two close siblings
+    private static final double EPSILON = 0.25;
+    private static final int TIME_CHECK_INTERVAL = 1024;
+    // Stands for a pass in the move buffers: the player to move has no legal move
+    private static final int PASS = Move.NONE;
+    // Mixed into the Zobrist key for each ply left, see depthKey
+    private static final long DEPTH_KEY = 0x9E3779B97F4A7C15L;
+    private static final long SUITE_SEED = 20240517L;
+
+    private final ProofTable table;
+
+    // Per-ply buffers: the children of the node being expanded at each ply
+    private final int[][] moveBuffers = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+    private final int[] moveCounts = new int[MAX_PLY];
+    private final long[][] childKeys = new long[MAX_PLY][MoveGenerator.MAX_MOVES];
+    private final int[][] childProofs = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+    private final int[][] childDisproofs = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+    private final int[][] childWork = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+    // Children whose numbers are final: wins, losses and leaves at the ply limit
+    private final boolean[][] childSolved = new boolean[MAX_PLY][MoveGenerator.MAX_MOVES];
+    private final UndoRecord[] undoRecords = new UndoRecord[MAX_PLY];
+
+    private GameState state;
+    private int attacker;
+    // Positions reached (children generated), and nodes expanded
+    private long nodes;
+    private long expansions;
+    private long deadline;
+    private boolean aborted;
+    private volatile boolean stopRequested;
+    // Numbers of the node the last call to mid returned from
+    private int lastProof;
+    private int lastDisproof;
+
+    /* ------------------- */
+    /* --- Constructor --- */
+    public ProofNumberSearch() {
+        this(new ProofTable());
+    }
+
+    public ProofNumberSearch(ProofTable table) {
+        if (table == null) {
+            throw new IllegalArgumentException("Proof table cannot be null.");
+        }
+        this.table = table;
+        for (int i = 0; i < MAX_PLY; i++) {
+            undoRecords[i] = new UndoRecord();
+        }
+    }
+    /* --- --- --- --- --- */
+
+    /* ------------- */
+    /* --- Solve --- */
+    /**
+     * Looks for a forced win of the player to move.
+     * @param root The position to solve, left untouched.
+     * @param maxPlies Longest win looked for, in plies of both players.
+     * @param timeBudgetMillis Hard time limit; the outcome is {@link ProofResult.Outcome#UNKNOWN} if it runs out.
+     */
+    public ProofResult solve(GameState root, int maxPlies, long timeBudgetMillis) {
+        if (maxPlies <= 0 || maxPlies >= MAX_PLY) {
+            throw new IllegalArgumentException("Ply limit must be between 1 and " + (MAX_PLY - 1) + ".");
+        }
+        long start = System.nanoTime();
+        this.deadline = start + timeBudgetMillis * 1_000_000L;
+        this.stopRequested = false;
+        this.aborted = false;
+        this.nodes = 0;
+        this.expansions = 0;
+        this.state = new GameState(root);
+        this.attacker = state.getCurrentPlayerId();
+
+        ProofResult.Outcome outcome = ProofResult.Outcome.NO_WIN;
+        int plies = 0;
+        int[] line = new int[0];
+        if (!state.isGameOver()) {
+            // The winner moves on odd plies only, even a pass takes a ply
+            for (int depth = 1; depth <= maxPlies; depth += 2) {
+                mid(0, depth, state.getZobristKey(), INFINITY, INFINITY);
+                if (aborted) {
+                    outcome = ProofResult.Outcome.UNKNOWN;
+                    break;
+                }
+                plies = depth;
+                if (lastProof == 0) {
+                    outcome = ProofResult.Outcome.WIN;
+                    line = winningLine(depth);
+                    break;
+                }
+            }
+            if (outcome == ProofResult.Outcome.NO_WIN) {
+                plies = maxPlies;
+            }
+        }
+
+        long elapsed = (System.nanoTime() - start) / 1_000_000L;
+        this.state = null;
+        return new ProofResult(outcome, plies, line, nodes, elapsed);
+    }
+
+    /**
+     * Stops a running solve from another thread; it returns {@link ProofResult.Outcome#UNKNOWN}.
+     */
+    public void stop() {
+        this.stopRequested = true;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public ProofTable getProofTable() {
+        return table;
+    }
+
+    // Multiple iterative deepening: expands the node until its proof number reaches
+    // proofThreshold or its disproof number reaches disproofThreshold. The attacker
+    // is to move on even plies (OR nodes), the defender on odd plies (AND nodes).
+    private void mid(int ply, int depth, long key, int proofThreshold, int disproofThreshold) {
+        long nodesBefore = nodes;
+        if (!checkLimits()) {
+            return;
+        }
+        boolean attackerToMove = (ply & 1) == 0;
+        expand(ply, depth);
+        int count = moveCounts[ply];
+        int[] proofs = childProofs[ply];
+        int[] disproofs = childDisproofs[ply];
+
+        int proof;
+        int disproof;
+        while (true) {
+            // OR node: proven by one child, disproven by all; AND node the other way round.
+            // Track the child to explore next and the runner-up value
+            int best = 0;
+            int bestValue = INFINITY;
+            int secondValue = INFINITY;
+            long sum = 0;
+            for (int i = 0; i < count; i++) {
+                int value = attackerToMove ? proofs[i] : disproofs[i];
+                sum += attackerToMove ? disproofs[i] : proofs[i];
+                if (value < bestValue) {
+                    secondValue = bestValue;
+                    bestValue = value;
+                    best = i;
+                } else if (value < secondValue) {
+                    secondValue = value;
+                }
+            }
+            int total = sum >= INFINITY ? (hasInfinite(attackerToMove ? disproofs : proofs, count) ? INFINITY : MAX_FINITE)
+                    : (int) sum;
+            proof = attackerToMove ? bestValue : total;
+            disproof = attackerToMove ? total : bestValue;
+            if (proof >= proofThreshold || disproof >= disproofThreshold || aborted) {
+                break;
+            }
+
+            // The child must stay the best one, and must not push the node past its other threshold
+            int ownThreshold = attackerToMove ? proofThreshold : disproofThreshold;
+            int otherThreshold = attackerToMove ? disproofThreshold : proofThreshold;
+            int childValue = (int) Math.min(ownThreshold,
+                    Math.max(secondValue + 1L, (long) Math.ceil(secondValue * (1 + EPSILON))));
+            int childOther = (int) Math.min(INFINITY,
+                    (long) otherThreshold - total + (attackerToMove ? disproofs[best] : proofs[best]));
+            int move = moveBuffers[ply][best];
+            long childStart = nodes;
+            play(ply, move);
+            if (attackerToMove) {
+                mid(ply + 1, depth - 1, childKeys[ply][best], childValue, childOther);
+            } else {
+                mid(ply + 1, depth - 1, childKeys[ply][best], childOther, childValue);
+            }
+            takeBack(ply, move);
+            if (aborted) {
+                break;
+            }
+            proofs[best] = lastProof;
+            disproofs[best] = lastDisproof;
+            childWork[ply][best] = (int) Math.min(Integer.MAX_VALUE, childWork[ply][best] + nodes - childStart);
+        }
+        if (!aborted) {
+            table.store(depthKey(key, depth), proof, disproof, nodes - nodesBefore);
+        }
+        lastProof = proof;
+        lastDisproof = disproof;
+    }
+
+    // Generates the children of the node at this ply and sets their starting numbers:
+    // final for wins, losses and the ply limit, from the table for the others.
+    // Stops at the first child that settles the node on its own.
+    private void expand(int ply, int depth) {
+        int[] moves = moveBuffers[ply];
+        int count = state.generateMoves(moves);
+        if (count == 0) {
+            moves[0] = PASS;
+            count = 1;
+        }
+        boolean attackerToMove = (ply & 1) == 0;
+        for (int i = 0; i < count; i++) {
+            int winner = play(ply, moves[i]);
+            nodes++;
+            childKeys[ply][i] = state.getZobristKey();
+            childSolved[ply][i] = true;
+            childWork[ply][i] = 0;
+            if (winner == attacker) {
+                setChild(ply, i, 0, INFINITY);
+            } else if (winner != 0 || depth == 1) {
+                // A defender win, or the limit reached without a win
+                setChild(ply, i, INFINITY, 0);
+            } else if (depth == 2) {
+                // The attacker has one ply left: settle it without expanding the child
+                boolean win = hasImmediateWin();
+                setChild(ply, i, win ? 0 : INFINITY, win ? INFINITY : 0);
+            } else {
+                childSolved[ply][i] = false;
+                int slot = table.probe(depthKey(childKeys[ply][i], depth - 1));
+                if (slot >= 0) {
+                    setChild(ply, i, table.getProof(slot), table.getDisproof(slot));
+                    childWork[ply][i] = table.getWork(slot);
+                } else {
+                    setChild(ply, i, 1, 1);
+                }
+            }
+            takeBack(ply, moves[i]);
+            if ((attackerToMove ? childProofs[ply][i] : childDisproofs[ply][i]) == 0) {
+                count = i + 1;
+                break;
+            }
+        }
+        moveCounts[ply] = count;
+    }
+
+    // Whether the player to move can win on the spot: take the enemy master or step onto its temple
+    private boolean hasImmediateWin() {
+        BitBoard board = state.getBitBoard();
+        int player = state.getCurrentPlayerId();
+        int enemy = BitBoard.opponent(player);
+        int own = board.getPieces(player);
+        int master = board.getMasterSquare(player);
+        int goals = board.getMaster(enemy);
+        int cards = state.getPlayer(player).getCardMask();
+        for (int c = cards; c != 0; c &= c - 1) {
+            int card = Integer.numberOfTrailingZeros(c);
+            for (int m = own; m != 0; m &= m - 1) {
+                int sq = Integer.numberOfTrailingZeros(m);
+                int targets = MoveTable.getTargets(card, player, sq) & ~own;
+                int wins = sq == master ? goals | (1 << BitBoard.getTempleArch(enemy)) : goals;
+                if ((targets & wins) != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void setChild(int ply, int index, int proof, int disproof) {
+        childProofs[ply][index] = proof;
+        childDisproofs[ply][index] = disproof;
+    }
+
+    private static boolean hasInfinite(int[] values, int count) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == INFINITY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Plays a move or a pass; returns the winner id, 0 if the game goes on
+    private int play(int ply, int move) {
+        if (move == PASS) {
+            state.switchPlayerTurn();
+            return 0;
+        }
+        return state.makeMove(move, undoRecords[ply]);
+    }
+
+    private void takeBack(int ply, int move) {
+        if (move == PASS) {
+            state.switchPlayerTurn();
+        } else {
+            state.unmakeMove(undoRecords[ply]);
+        }
+    }
+
+    // The same position with a different number of plies left is a different question
+    private static long depthKey(long key, int depth) {
+        return key + depth * DEPTH_KEY;
+    }
+
+    // Counts an expansion and checks the clock every thousand of them; false once stopped
+    private boolean checkLimits() {
+        expansions++;
+        if (stopRequested || ((expansions % TIME_CHECK_INTERVAL) == 0 && System.nanoTime() >= deadline)) {
+            aborted = true;
+        }
+        return !aborted;
+    }
+    /* --- --- --- --- --- */
+
+    /* -------------------- */
+    /* --- Winning line --- */
+    // Walks down the proven tree from the root. Each node is expanded again, which
+    // also proves again any child the table dropped. The winner takes a proven child,
+    // an immediate win first; since the limit was deepened step by step, that child
+    // needs all the plies left. The loser takes a child that cannot be proven with two
+    // plies less, so the line is the longest resistance, as long as the limit.
+    private int[] winningLine(int depth) {
+        int[] line = new int[depth];
+        int length = 0;
+        long key = state.getZobristKey();
+        for (int ply = 0; ply < depth; ply++) {
+            int left = depth - ply;
+            mid(ply, left, key, INFINITY, INFINITY);
+            if (aborted || lastProof != 0) {
+                break; // Out of time while proving a dropped child again
+            }
+            int count = moveCounts[ply];
+            int chosen = -1;
+            for (int i = 0; i < count; i++) {
+                if (childProofs[ply][i] != 0) {
+                    continue;
+                }
+                if ((ply & 1) == 0) {
+                    if (chosen < 0 || (childSolved[ply][i] && !childSolved[ply][chosen])) {
+                        chosen = i;
+                    }
+                } else if (chosen < 0 && left - 3 >= 1) {
+                    int move = moveBuffers[ply][i];
+                    play(ply, move);
+                    mid(ply + 1, left - 3, childKeys[ply][i], INFINITY, INFINITY);
+                    takeBack(ply, move);
+                    if (!aborted && lastProof != 0) {
+                        chosen = i;
+                    }
+                }
+            }
+            if (chosen < 0) {
+                // Every reply loses as fast, or out of time: any of them
+                for (int i = 0; i < count && chosen < 0; i++) {
+                    if (childProofs[ply][i] == 0) {
+                        chosen = i;
+                    }
+                }
+            }
+            int move = moveBuffers[ply][chosen];
+            line[length++] = move;
+            if (play(ply, move) != 0) {
+                break; // The winning move
+            }
+            key = childKeys[ply][chosen];
+        }
+        // The solve ends here, the copy of the root is dropped without taking the moves back
+        aborted = false;
+        return Arrays.copyOf(line, length);
+    }
+    /* --- --- --- --- --- */
+
+    /* ---------------------- */
+    /* --- Command line --- */
+    public static void main(String[] args) {
+        int maxPlies = DEFAULT_MAX_PLIES;
+        int hashMB = ProofTable.DEFAULT_SIZE_MB;
+        long timeMillis = 60_000;
+        int suiteSize = 0;
+        List<Long> positions = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--plies") && i + 1 < args.length) {
+                maxPlies = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--hash") && i + 1 < args.length) {
+                hashMB = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--time") && i + 1 < args.length) {
+                timeMillis = Long.parseLong(args[++i]);
+            } else if (args[i].equals("--suite") && i + 1 < args.length) {
+                suiteSize = Integer.parseInt(args[++i]);
+            } else if (!args[i].startsWith("--")) {
+                positions.add(Long.parseUnsignedLong(args[i], 16));
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        if (positions.isEmpty() && suiteSize == 0) {
+            System.err.println("Usage: ProofNumberSearch [packedPosition(hex)...] [--plies N] [--hash MB] [--time ms] [--suite n]");
+            return;
+        }
+
+        List<GameState> states = new ArrayList<>();
+        for (long position : positions) {
+            states.add(PackedPosition.toGameState(position));
+        }
+        states.addAll(SearchBenchmark.positionSuite(SUITE_SEED, suiteSize));
+
+        ProofNumberSearch solver = new ProofNumberSearch(new ProofTable(hashMB));
+        long totalNodes = 0;
+        long totalTime = 0;
+        for (GameState position : states) {
+            ProofResult result = solver.solve(position, maxPlies, timeMillis);
+            totalNodes += result.getNodes();
+            totalTime += result.getTimeMillis();
+            System.out.println(Long.toHexString(PackedPosition.pack(position)) + ": " + result);
+        }
+        System.out.println("Total: " + totalNodes + " nodes, " + totalTime + " ms, "
+                + (totalTime > 0 ? totalNodes * 1000 / totalTime : totalNodes * 1000) + " nps, table "
+                + solver.getProofTable().getUsed() + "/" + solver.getProofTable().getCapacity() + " slots");
+    }
+    /* --- --- --- --- --- */
+}
@@ -0,0 +1,91 @@
+package AI;
+
+import Entity.Move;
+
+/**
+ * Outcome of a {@link ProofNumberSearch}: whether the player to move has a forced
+ * win within the ply limit and, if so, the winning line.
+ */
+public class ProofResult {
+    public enum Outcome {
+        /** The player to move wins by force; see {@link #getLine}. */
+        WIN,
+        /** The opponent can avoid losing for the whole ply limit. */
+        NO_WIN,
+        /** Stopped or out of time before the question was settled. */
+        UNKNOWN
+    }
+
+    private final Outcome outcome;
+    private final int maxPlies;
+    private final int[] line;
+    private final long nodes;
+    private final long timeMillis;
+
+    public ProofResult(Outcome outcome, int maxPlies, int[] line, long nodes, long timeMillis) {
+        this.outcome = outcome;
+        this.maxPlies = maxPlies;
+        this.line = line;
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+    }
+
+    /* --------------- */
+    /* --- Getters --- */
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @return The ply limit of the question answered: the length of the shortest
+     *         forced win for {@link Outcome#WIN}, the limit searched otherwise.
+     */
+    public int getMaxPlies() {
+        return maxPlies;
+    }
+
+    /**
+     * @return The winning line, moves of both players starting with the winner's,
+     *         ending with the winning move. {@link Move#NONE} stands for a pass.
+     *         Empty unless the outcome is {@link Outcome#WIN}.
+     */
+    public int[] getLine() {
+        return line.clone();
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public long getNodesPerSecond() {
+        return timeMillis > 0 ? nodes * 1000 / timeMillis : nodes * 1000;
+    }
+    /* --- --- --- --- --- */
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        switch (outcome) {
+            case WIN:
+                sb.append("forced win in ").append(maxPlies).append(" plies:");
+                for (int move : line) {
+                    sb.append(" ").append(move == Move.NONE ? "pass" : Move.toString(move));
+                }
+                break;
+            case NO_WIN:
+                sb.append("no forced win within ").append(maxPlies).append(" plies");
+                break;
+            default:
+                sb.append("unknown (stopped, no forced win within ").append(maxPlies).append(" plies)");
+                break;
+        }
+        sb.append(" nodes=").append(nodes)
+          .append(" time=").append(timeMillis).append("ms")
+          .append(" nps=").append(getNodesPerSecond());
+        return sb.toString();
+    }
+}
@@ -0,0 +1,137 @@
+package AI;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size hash table of proof and disproof numbers for {@link ProofNumberSearch}.
+ * Its memory is allocated once, so a long solve never grows past it: when a bucket
+ * is full, the entry whose subtree cost the fewest nodes is replaced, since it is
+ * the cheapest to find again.
+ * <p>
+ * Entries live in three primitive arrays: the key, the two numbers packed in one
+ * {@code long}, and the work (nodes searched below the entry, saturated). The
+ * table is not thread-safe: use one per solver.
+ */
+public class ProofTable {
+    public static final int DEFAULT_SIZE_MB = 64;
+    private static final int BUCKET_SIZE = 4;
+    private static final int BYTES_PER_ENTRY = 20;
+
+    private final long[] keys;
+    private final long[] numbers;
+    private final int[] work;
+    private final int bucketMask;
+    private int used;
+
+    /* ------------------- */
+    /* --- Constructor --- */
+    public ProofTable() {
+        this(DEFAULT_SIZE_MB);
+    }
+
+    /**
+     * @param sizeMB Memory to use, rounded down to a power of two number of entries.
+     */
+    public ProofTable(int sizeMB) {
+        if (sizeMB <= 0) {
+            throw new IllegalArgumentException("Proof table size must be positive.");
+        }
+        long entries = Long.highestOneBit((long) sizeMB * 1024 * 1024 / BYTES_PER_ENTRY);
+        entries = Math.max(BUCKET_SIZE, Math.min(entries, 1L << 30));
+        this.keys = new long[(int) entries];
+        this.numbers = new long[(int) entries];
+        this.work = new int[(int) entries];
+        this.bucketMask = (int) (entries / BUCKET_SIZE) - 1;
+    }
+    /* --- --- --- --- --- */
+
+    /* --------------------- */
+    /* --- Probe & Store --- */
+    /**
+     * @return The slot holding the key, -1 if the position is not in the table.
+     */
+    public int probe(long key) {
+        int base = bucket(key);
+        for (int i = base; i < base + BUCKET_SIZE; i++) {
+            if (keys[i] == key && work[i] != 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Stores the numbers of a position, replacing its previous entry if any.
+     * @param nodes Nodes searched to get these numbers, used to pick what to replace.
+     */
+    public void store(long key, int proof, int disproof, long nodes) {
+        int base = bucket(key);
+        int victim = base;
+        int victimWork = Integer.MAX_VALUE;
+        for (int i = base; i < base + BUCKET_SIZE; i++) {
+            if (work[i] == 0) {
+                if (victimWork > 0) {
+                    victim = i;
+                    victimWork = 0;
+                }
+                continue;
+            }
+            if (keys[i] == key) {
+                nodes += work[i]; // Work done on earlier visits still counts
+                victim = i;
+                break;
+            }
+            if (work[i] < victimWork) {
+                victim = i;
+                victimWork = work[i];
+            }
+        }
+        if (work[victim] == 0) {
+            used++;
+        }
+        keys[victim] = key;
+        numbers[victim] = (proof & 0xFFFFFFFFL) | ((long) disproof << 32);
+        work[victim] = (int) Math.max(1, Math.min(nodes, Integer.MAX_VALUE));
+    }
+
+    private int bucket(long key) {
+        return (int) (((key >>> 32) ^ key) & bucketMask) * BUCKET_SIZE;
+    }
+    /* --- --- --- --- --- */
+
+    /* ---------------------- */
+    /* --- Slot accessors --- */
+    public int getProof(int slot) {
+        return (int) numbers[slot];
+    }
+
+    public int getDisproof(int slot) {
+        return (int) (numbers[slot] >>> 32);
+    }
+
+    public int getWork(int slot) {
+        return work[slot];
+    }
+    /* --- --- --- --- --- */
+
+    /* ------------------- */
+    /* --- Maintenance --- */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(numbers, 0L);
+        Arrays.fill(work, 0);
+        used = 0;
+    }
+
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * @return The number of slots in use.
+     */
+    public int getUsed() {
+        return used;
+    }
+    /* --- --- --- --- --- */
+}
@@ -0,0 +1,173 @@
+package AI;
+
+import Entity.CardDistribution;
+import Entity.GameState;
+import Entity.MoveGenerator;
+import Entity.UndoRecord;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures how the Lazy SMP search scales: for 1, 2, 4... up to N threads,
+ * searches a fixed, seeded suite of positions to a fixed depth and reports
+ * nodes per second and time to depth. With {@code --ablation}, searches the
+ * suite on one thread with each {@link SearchOptions} enhancement turned off
+ * in turn and compares node counts and time to depth with the full search.
+ * <pre>
+ * java -cp out AI.SearchBenchmark [maxThreads] [depth] [positions] [hashMB]
+ * java -cp out AI.SearchBenchmark --ablation [depth] [positions] [hashMB]
+ * </pre>
+ */
+public class SearchBenchmark {
+    private static final long SUITE_SEED = 20240517L;
+    // Safety limit per position; a search cut by it is reported as incomplete
+    private static final long TIME_LIMIT_MILLIS = 60_000;
+
+    public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--ablation")) {
+            int depth = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+            int positions = args.length > 2 ? Integer.parseInt(args[2]) : 12;
+            int hashMB = args.length > 3 ? Integer.parseInt(args[3]) : 64;
+            ablation(depth, positions, hashMB);
+            return;
+        }
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 9;
+        int positions = args.length > 2 ? Integer.parseInt(args[2]) : 12;
+        int hashMB = args.length > 3 ? Integer.parseInt(args[3]) : 64;
+
+        List<GameState> suite = positionSuite(SUITE_SEED, positions);
+        System.out.println("Positions: " + suite.size() + ", depth: " + depth + ", hash: " + hashMB + " MB, cores: "
+                + Runtime.getRuntime().availableProcessors());
+        System.out.println("threads      nodes    time(ms)        nps   speedup  incomplete");
+
+        // Warm up the JIT so the first row is not penalised
+        try (LazySmpSearch warmUp = new LazySmpSearch(1, new TranspositionTable(hashMB))) {
+            for (GameState position : suite) {
+                warmUp.search(position, Math.max(1, depth - 2), TIME_LIMIT_MILLIS);
+            }
+        }
+
+        long baseTime = 0;
+        for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+            long nodes = 0;
+            long time = 0;
+            int incomplete = 0;
+            try (LazySmpSearch search = new LazySmpSearch(threads, new TranspositionTable(hashMB))) {
+                for (GameState position : suite) {
+                    search.getTranspositionTable().clear();
+                    long start = System.nanoTime();
+                    SearchResult result = search.search(position, depth, TIME_LIMIT_MILLIS);
+                    time += (System.nanoTime() - start) / 1_000_000L;
+                    nodes += result.getNodes();
+                    if (result.getDepth() < depth && !result.isWin() && !result.isLoss()) {
+                        incomplete++;
+                    }
+                }
+            }
+            if (threads == 1) {
+                baseTime = Math.max(1, time);
+            }
+            System.out.printf("%7d %10d %11d %10d %8.2fx %11d%n", threads, nodes, time,
+                    nodes * 1000 / Math.max(1, time), (double) baseTime / Math.max(1, time), incomplete);
+        }
+    }
+
+    /**
+     * Searches the suite with all enhancements, with each one disabled in turn and
+     * with none of them, and prints the totals relative to the full search.
+     */
+    static void ablation(int depth, int positions, int hashMB) {
+        List<GameState> suite = positionSuite(SUITE_SEED, positions);
+        System.out.println("Positions: " + suite.size() + ", depth: " + depth + ", hash: " + hashMB + " MB");
+        System.out.println("options                   nodes    time(ms)    nodes%     time%  incomplete");
+
+        List<String> names = new ArrayList<>();
+        List<SearchOptions> variants = new ArrayList<>();
+        names.add("all");
+        variants.add(new SearchOptions());
+        String[] switches = { "quiescence", "hash move", "captures", "killers", "history", "pvs", "aspiration", "lmr" };
+        for (int i = 0; i < switches.length; i++) {
+            SearchOptions options = new SearchOptions();
+            switch (i) {
+                case 0: options.setQuiescence(false); break;
+                case 1: options.setHashMoveOrdering(false); break;
+                case 2: options.setCaptureOrdering(false); break;
+                case 3: options.setKillerMoves(false); break;
+                case 4: options.setHistoryHeuristic(false); break;
+                case 5: options.setPrincipalVariationSearch(false); break;
+                case 6: options.setAspirationWindows(false); break;
+                default: options.setLateMoveReductions(false); break;
+            }
+            names.add("no " + switches[i]);
+            variants.add(options);
+        }
+        names.add("none");
+        variants.add(SearchOptions.none());
+
+        SearchEngine engine = new SearchEngine(new Evaluator(), new TranspositionTable(hashMB));
+        // Warm up the JIT at full depth: the rows are compared with the first one
+        for (GameState position : suite) {
+            engine.search(position, depth, TIME_LIMIT_MILLIS);
+        }
+
+        long baseNodes = 0;
+        long baseTime = 0;
+        for (int v = 0; v < variants.size(); v++) {
+            engine.setOptions(variants.get(v));
+            long nodes = 0;
+            long time = 0;
+            int incomplete = 0;
+            for (GameState position : suite) {
+                engine.getTranspositionTable().clear();
+                long start = System.nanoTime();
+                SearchResult result = engine.search(position, depth, TIME_LIMIT_MILLIS);
+                time += (System.nanoTime() - start) / 1_000_000L;
+                nodes += result.getNodes();
+                if (result.getDepth() < depth && !result.isWin() && !result.isLoss()) {
+                    incomplete++;
+                }
+            }
+            if (v == 0) {
+                baseNodes = Math.max(1, nodes);
+                baseTime = Math.max(1, time);
+            }
+            System.out.printf("%-15s %15d %11d %8.1f%% %8.1f%% %11d%n", names.get(v), nodes, time,
+                    100.0 * nodes / baseNodes, 100.0 * time / baseTime, incomplete);
+        }
+    }
+
+    private static int nextThreadCount(int threads, int maxThreads) {
+        return (threads < maxThreads && threads * 2 > maxThreads) ? maxThreads : threads * 2;
+    }
+
+    /**
+     * Builds a reproducible list of positions: random deals from the standard
+     * starting board, each followed by a few random moves.
+     */
+    static List<GameState> positionSuite(long seed, int count) {
+        Random random = new Random(seed);
+        List<GameState> suite = new ArrayList<>(count);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        UndoRecord undo = new UndoRecord();
+        while (suite.size() < count) {
+            int distribution = random.nextInt(CardDistribution.COUNT);
+            GameState gameState = GameState.newDeal(distribution);
+
+            int plies = random.nextInt(8);
+            for (int i = 0; i < plies && !gameState.isGameOver(); i++) {
+                int moveCount = gameState.generateMoves(moves);
+                if (moveCount == 0) {
+                    gameState.switchPlayerTurn();
+                } else {
+                    gameState.makeMove(moves[random.nextInt(moveCount)], undo);
+                }
+            }
+            if (!gameState.isGameOver()) {
+                suite.add(gameState);
+            }
+        }
+        return suite;
+    }
+}
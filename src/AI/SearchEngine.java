@@ -0,0 +1,686 @@
+package AI;
+
+import Entity.BitBoard;
+import Entity.GameState;
+import Entity.Move;
+import Entity.MoveGenerator;
+import Entity.UndoRecord;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Negamax search with alpha-beta pruning and iterative deepening, extended with
+ * quiescence search, move ordering (hash move, captures, killer moves, history),
+ * principal variation search with aspiration windows and late-move reductions.
+ * Each extension can be switched off through {@link SearchOptions}.
+ * The engine works on its own copy of the game state and explores moves with
+ * {@link GameState#makeMove}/{@link GameState#unmakeMove}; move buffers, undo
+ * records and the principal variation table are allocated once, so the search
+ * itself does not allocate. An engine is not thread-safe: use one per thread.
+ */
+public class SearchEngine implements Searcher {
+    public static final int WIN_SCORE = 30000;
+    public static final int MAX_PLY = 64;
+    private static final int INFINITY = WIN_SCORE + 1;
+
+    // Number of nodes between two checks of the clock
+    private static final int TIME_CHECK_INTERVAL = 2048;
+
+    // Move ordering scores, highest first
+    private static final int HASH_MOVE_SCORE = 1_000_000;
+    private static final int WINNING_MOVE_SCORE = 900_000;
+    private static final int CAPTURE_SCORE = 100_000;
+    private static final int PAWN_ATTACKER_BONUS = 10_000;
+    private static final int FIRST_KILLER_SCORE = 90_000;
+    private static final int SECOND_KILLER_SCORE = 80_000;
+    // History scores stay below the killers: all of them are halved past this value
+    private static final int HISTORY_LIMIT = 50_000;
+
+    // Half width of the first aspiration window, doubled after each failure
+    private static final int ASPIRATION_WINDOW = 50;
+    private static final int ASPIRATION_MIN_DEPTH = 4;
+    // Late-move reductions: moves from this index on, at this depth or more, are reduced
+    private static final int LMR_FIRST_MOVE = 3;
+    private static final int LMR_MIN_DEPTH = 3;
+    // Moves from this index on are reduced by two plies instead of one
+    private static final int LMR_LATE_MOVE = 6;
+
+    private final Evaluator evaluator;
+    private final TranspositionTable table;
+    private Tablebase tablebase;
+    // 0 for a main search, helper number in a parallel search
+    private int helperId;
+
+    // Per ply buffers, allocated once
+    private final int[][] moveBuffers = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+    private final UndoRecord[] undoRecords = new UndoRecord[MAX_PLY];
+    private final long[] pathKeys = new long[MAX_PLY + 1];
+    private final int[][] pvTable = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+    private final int[][] moveScores = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+    private final int[][] killers = new int[MAX_PLY][2];
+    private final int[][][] history = new int[3][BitBoard.SQUARES][BitBoard.SQUARES];
+
+    private SearchOptions options = new SearchOptions();
+    private volatile SearchListener listener = SearchListener.NONE;
+    // Options of the running search, read once when it starts
+    private boolean useQuiescence;
+    private boolean useHashMove;
+    private boolean useCaptureOrdering;
+    private boolean useKillers;
+    private boolean useHistory;
+    private boolean usePvs;
+    private boolean useAspiration;
+    private boolean useLmr;
+
+    // State of the running search
+    private GameState state;
+    private long nodes;
+    private long deadline;
+    private int rootBestMove;
+    private volatile boolean stopRequested;
+
+    /* ------------------- */
+    /* --- Constructor --- */
+    public SearchEngine() {
+        this(new Evaluator(), new TranspositionTable());
+    }
+
+    /**
+     * @param evaluator The evaluation, tied to this engine: it follows the moves of the search.
+     * @param table The transposition table to use, can be shared with engines running in other threads.
+     */
+    public SearchEngine(Evaluator evaluator, TranspositionTable table) {
+        if (evaluator == null || table == null) {
+            throw new IllegalArgumentException("Evaluator and transposition table cannot be null.");
+        }
+        this.evaluator = evaluator;
+        this.table = table;
+        for (int i = 0; i < MAX_PLY; i++) {
+            undoRecords[i] = new UndoRecord();
+        }
+    }
+    /* --- --- --- --- --- */
+
+    /* -------------- */
+    /* --- Search --- */
+    /**
+     * Searches the position with a wall-clock budget.
+     * @param root The position to search, left untouched.
+     * @param timeBudgetMillis Hard time limit; the best move of the deepest iteration reached is returned.
+     */
+    @Override
+    public SearchResult search(GameState root, long timeBudgetMillis) {
+        return search(root, MAX_PLY - 1, timeBudgetMillis);
+    }
+
+    /**
+     * Searches the position until the given depth is completed or the time runs out.
+     */
+    public SearchResult search(GameState root, int maxDepth, long timeBudgetMillis) {
+        long start = beginSearch(root, timeBudgetMillis);
+
+        int[] rootMoves = moveBuffers[0];
+        int rootCount = state.generateMoves(rootMoves);
+        if (rootCount == 0 || state.isGameOver()) {
+            return new SearchResult(Move.NONE, 0, 0, 0, 0, new int[0]);
+        }
+        pathKeys[0] = state.getZobristKey();
+        long rootEntry = table.probe(pathKeys[0]);
+        scoreMoves(rootMoves, moveScores[0], rootCount, 0, rootEntry != 0 ? TranspositionTable.getMove(rootEntry) : Move.NONE);
+        for (int i = 0; i < rootCount; i++) {
+            pickNext(rootMoves, moveScores[0], i, rootCount);
+        }
+
+        // Helpers start from different root moves and skip depths so that threads diverge
+        int bestMove = rootMoves[helperId % rootCount];
+        int bestScore = -INFINITY;
+        int completedDepth = 0;
+        int[] bestLine = { bestMove };
+
+        for (int depth = 1; depth <= Math.min(maxDepth, MAX_PLY - 1); depth++) {
+            if (helperId > 0 && depth > 1 && ((depth + helperId) & 1) == 0) {
+                continue;
+            }
+            // Narrow window around the previous score, widened on each failure
+            int window = ASPIRATION_WINDOW;
+            int alpha = -INFINITY;
+            int beta = INFINITY;
+            if (useAspiration && depth >= ASPIRATION_MIN_DEPTH && completedDepth > 0
+                    && Math.abs(bestScore) < WIN_SCORE - MAX_PLY) {
+                alpha = bestScore - window;
+                beta = bestScore + window;
+            }
+
+            while (true) {
+                // Previous best move first
+                moveToFront(rootMoves, rootCount, bestMove);
+                int score = searchRoot(rootMoves, rootCount, depth, alpha, beta);
+                // A move beating alpha beats the previous best move, which was searched first,
+                // so it is kept even from a partial iteration
+                if (rootBestMove != Move.NONE) {
+                    bestMove = rootBestMove;
+                    bestScore = score;
+                    bestLine = copyPv();
+                }
+                if (stopped()) {
+                    break;
+                }
+                if (score <= alpha) {
+                    alpha = Math.max(alpha - window, -INFINITY);
+                } else if (score >= beta) {
+                    beta = Math.min(beta + window, INFINITY);
+                } else {
+                    break;
+                }
+                window *= 2;
+            }
+            if (stopped()) {
+                break;
+            }
+            completedDepth = depth;
+            table.store(pathKeys[0], bestMove, bestScore, depth, TranspositionTable.BOUND_EXACT, 0);
+            if (helperId == 0) {
+                listener.onProgress(new SearchResult(bestMove, bestScore, depth, nodes,
+                        (System.nanoTime() - start) / 1_000_000L, bestLine));
+            }
+            if (Math.abs(bestScore) >= WIN_SCORE - MAX_PLY) {
+                break; // Forced result found, searching deeper will not change it
+            }
+        }
+
+        long elapsed = (System.nanoTime() - start) / 1_000_000L;
+        this.state = null;
+        return new SearchResult(bestMove, bestScore, completedDepth, nodes, elapsed, bestLine);
+    }
+
+    /**
+     * Analysis mode: scores every root move exactly, not just the best one, depth
+     * after depth until the time runs out or {@link #stop} is called. Each root move
+     * gets a full window, so this is slower than {@link #search} at the same depth.
+     * @param root The position to analyse, left untouched.
+     * @param listener Receives the scores of all root moves after each completed depth.
+     */
+    public void analyze(GameState root, long timeBudgetMillis, Consumer<AnalysisResult> listener) {
+        long start = beginSearch(root, timeBudgetMillis);
+
+        int[] rootMoves = moveBuffers[0];
+        int rootCount = state.generateMoves(rootMoves);
+        if (rootCount == 0 || state.isGameOver()) {
+            this.state = null;
+            return;
+        }
+        pathKeys[0] = state.getZobristKey();
+        int[] moves = Arrays.copyOf(rootMoves, rootCount);
+        int[] scores = new int[rootCount];
+
+        for (int depth = 1; depth <= MAX_PLY - 1; depth++) {
+            boolean decided = true;
+            for (int i = 0; i < rootCount && !stopped(); i++) {
+                scores[i] = searchMove(moves[i], depth, 0, -INFINITY, INFINITY);
+                decided &= Math.abs(scores[i]) >= WIN_SCORE - MAX_PLY;
+            }
+            if (stopped()) {
+                break;
+            }
+            listener.accept(new AnalysisResult(pathKeys[0], depth, nodes,
+                    (System.nanoTime() - start) / 1_000_000L, moves, scores));
+            if (decided) {
+                break; // Every move has a forced result
+            }
+        }
+        this.state = null;
+    }
+
+    // Starts the clock and sets up a copy of the root; returns the start time
+    private long beginSearch(GameState root, long timeBudgetMillis) {
+        long start = System.nanoTime();
+        this.deadline = start + timeBudgetMillis * 1_000_000L;
+        this.stopRequested = false;
+        this.nodes = 0;
+        this.state = new GameState(root);
+        evaluator.reset(state);
+        if (helperId == 0) {
+            table.newSearch();
+        }
+        prepareSearch();
+        return start;
+    }
+
+    // Reads the options and ages the move ordering tables of the previous search
+    private void prepareSearch() {
+        this.useQuiescence = options.isQuiescence();
+        this.useHashMove = options.isHashMoveOrdering();
+        this.useCaptureOrdering = options.isCaptureOrdering();
+        this.useKillers = options.isKillerMoves();
+        this.useHistory = options.isHistoryHeuristic();
+        this.usePvs = options.isPrincipalVariationSearch();
+        this.useAspiration = options.isAspirationWindows();
+        this.useLmr = options.isLateMoveReductions();
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = Move.NONE;
+            plyKillers[1] = Move.NONE;
+        }
+        ageHistory();
+    }
+
+    @Override
+    public void stop() {
+        this.stopRequested = true;
+    }
+
+    /**
+     * Forgets what was learned in earlier games: the transposition table and the
+     * history of move ordering. A depth-limited search then depends only on its position.
+     */
+    public void newGame() {
+        table.clear();
+        for (int[][] sideHistory : history) {
+            for (int[] fromHistory : sideHistory) {
+                Arrays.fill(fromHistory, 0);
+            }
+        }
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return table;
+    }
+
+    public SearchOptions getOptions() {
+        return new SearchOptions(options);
+    }
+
+    /**
+     * @param options The enhancements used from the next search on.
+     */
+    public void setOptions(SearchOptions options) {
+        if (options == null) {
+            throw new IllegalArgumentException("Search options cannot be null.");
+        }
+        this.options = new SearchOptions(options);
+    }
+
+    /**
+     * Reports each completed iteration of the main engine.
+     */
+    @Override
+    public void setSearchListener(SearchListener listener) {
+        this.listener = listener != null ? listener : SearchListener.NONE;
+    }
+
+    /**
+     * @param tablebase Endgame tablebases probed at every node, null to search without them.
+     */
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Makes this engine a helper of a parallel search: it searches every other depth
+     * and starts from a different root move, filling the shared table for the main engine.
+     */
+    void setHelperId(int helperId) {
+        this.helperId = helperId;
+    }
+
+    // Searches the root moves in order; sets rootBestMove to the best move scoring above alpha
+    private int searchRoot(int[] rootMoves, int rootCount, int depth, int alpha, int beta) {
+        rootBestMove = Move.NONE;
+        pvLength[0] = 0;
+        int bestScore = -INFINITY;
+        for (int i = 0; i < rootCount; i++) {
+            int move = rootMoves[i];
+            int score;
+            if (i == 0 || !usePvs) {
+                score = searchMove(move, depth, 0, alpha, beta);
+            } else {
+                score = searchMove(move, depth, 0, alpha, alpha + 1);
+                if (score > alpha && score < beta && !stopped()) {
+                    score = searchMove(move, depth, 0, alpha, beta);
+                }
+            }
+            if (stopped()) {
+                break;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    rootBestMove = move;
+                    updatePv(0, move);
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    // Plays a move, searches the reply and takes the move back
+    private int searchMove(int move, int depth, int ply, int alpha, int beta) {
+        UndoRecord undo = undoRecords[ply];
+        int score;
+        if (evaluator.makeMove(state, move, undo) != 0) {
+            score = WIN_SCORE - (ply + 1); // The move wins the game
+            pvLength[ply + 1] = 0;
+        } else {
+            score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+        }
+        evaluator.unmakeMove(state, undo);
+        return score;
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta) {
+        pvLength[ply] = 0;
+        if (countNode()) {
+            return 0;
+        }
+
+        // Repetition along the current line: cards cycle, so positions come back
+        long key = state.getZobristKey();
+        pathKeys[ply] = key;
+        for (int i = ply - 2; i >= 0; i -= 2) {
+            if (pathKeys[i] == key) {
+                return 0;
+            }
+        }
+
+        // Solved endgame: exact result, no need to search
+        if (tablebase != null) {
+            int value = tablebase.probe(state);
+            if (value != Tablebase.NOT_FOUND) {
+                if (value == Tablebase.DRAW) {
+                    return 0;
+                }
+                int plies = ply + Tablebase.getDistance(value);
+                return Tablebase.isWin(value) ? WIN_SCORE - plies : -WIN_SCORE + plies;
+            }
+        }
+
+        if (ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(state);
+        }
+        if (depth <= 0) {
+            return useQuiescence ? quiescence(ply, alpha, beta) : evaluator.evaluate(state);
+        }
+
+        // Transposition table: cut off on a deep enough result, otherwise try its move first
+        int hashMove = Move.NONE;
+        long entry = table.probe(key);
+        if (entry != 0) {
+            hashMove = TranspositionTable.getMove(entry);
+            if (TranspositionTable.getDepth(entry) >= depth) {
+                int ttScore = TranspositionTable.getScore(entry, ply);
+                int bound = TranspositionTable.getBound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT
+                        || (bound == TranspositionTable.BOUND_LOWER && ttScore >= beta)
+                        || (bound == TranspositionTable.BOUND_UPPER && ttScore <= alpha)) {
+                    return ttScore;
+                }
+            }
+        }
+
+        int[] moves = moveBuffers[ply];
+        int count = state.generateMoves(moves);
+        if (count == 0) {
+            // No legal move: the turn passes to the opponent
+            state.switchPlayerTurn();
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            state.switchPlayerTurn();
+            return score;
+        }
+        int[] scores = moveScores[ply];
+        scoreMoves(moves, scores, count, ply, hashMove);
+
+        int side = state.getCurrentPlayerId();
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = Move.NONE;
+        UndoRecord undo = undoRecords[ply];
+        for (int i = 0; i < count; i++) {
+            int move = pickNext(moves, scores, i, count);
+            boolean quiet = !Move.isCapture(move) && move != hashMove
+                    && move != killers[ply][0] && move != killers[ply][1];
+            int score;
+            if (evaluator.makeMove(state, move, undo) != 0) {
+                score = WIN_SCORE - (ply + 1); // The move wins the game
+                pvLength[ply + 1] = 0;
+            } else if (i == 0) {
+                score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            } else {
+                // Later moves are expected to fail low: prove it with a null window,
+                // at reduced depth for late quiet moves, and search again if they do not
+                int searchBeta = usePvs ? alpha + 1 : beta;
+                int reduction = useLmr && quiet && i >= LMR_FIRST_MOVE && depth >= LMR_MIN_DEPTH
+                        ? (i >= LMR_LATE_MOVE ? 2 : 1) : 0;
+                score = -negamax(depth - 1 - reduction, ply + 1, -searchBeta, -alpha);
+                if (reduction > 0 && score > alpha && !stopRequested) {
+                    score = -negamax(depth - 1, ply + 1, -searchBeta, -alpha);
+                }
+                if (usePvs && score > alpha && score < beta && !stopRequested) {
+                    score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+                }
+            }
+            evaluator.unmakeMove(state, undo);
+            if (stopRequested) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        if (!Move.isCapture(move)) {
+                            rememberCutoff(side, move, depth, ply);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = bestScore <= originalAlpha ? TranspositionTable.BOUND_UPPER
+                : bestScore >= beta ? TranspositionTable.BOUND_LOWER
+                : TranspositionTable.BOUND_EXACT;
+        // A fail-low has no meaningful best move: keep the one already stored
+        table.store(key, bound == TranspositionTable.BOUND_UPPER ? Move.NONE : bestMove, bestScore, depth, bound, ply);
+        return bestScore;
+    }
+
+    /**
+     * Searches only captures and winning moves past the horizon, so that the
+     * evaluation is not taken in the middle of an exchange. The side to move
+     * can always stand pat on the static evaluation.
+     */
+    private int quiescence(int ply, int alpha, int beta) {
+        pvLength[ply] = 0;
+        int standPat = evaluator.evaluate(state);
+        if (standPat >= beta || ply >= MAX_PLY - 1) {
+            return standPat;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+
+        int[] moves = moveBuffers[ply];
+        int[] scores = moveScores[ply];
+        int count = state.generateMoves(moves);
+        BitBoard board = state.getBitBoard();
+        int enemyTemple = BitBoard.getTempleArch(BitBoard.opponent(state.getCurrentPlayerId()));
+        int tactical = 0;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (Move.isCapture(move) || isWinningMove(board, move, enemyTemple)) {
+                moves[tactical] = move;
+                scores[tactical++] = tacticalScore(board, move, enemyTemple);
+            }
+        }
+
+        int bestScore = standPat;
+        UndoRecord undo = undoRecords[ply];
+        for (int i = 0; i < tactical; i++) {
+            int move = pickNext(moves, scores, i, tactical);
+            int score;
+            if (evaluator.makeMove(state, move, undo) != 0) {
+                score = WIN_SCORE - (ply + 1);
+                pvLength[ply + 1] = 0;
+            } else if (countNode()) {
+                evaluator.unmakeMove(state, undo);
+                return 0;
+            } else {
+                score = -quiescence(ply + 1, -beta, -alpha);
+            }
+            evaluator.unmakeMove(state, undo);
+            if (stopRequested) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    // Counts a node and checks the clock every TIME_CHECK_INTERVAL nodes
+    private boolean countNode() {
+        if ((++nodes & (TIME_CHECK_INTERVAL - 1)) == 0 && System.nanoTime() > deadline) {
+            stopRequested = true;
+        }
+        return stopRequested;
+    }
+
+    private boolean stopped() {
+        return stopRequested;
+    }
+    /* --- --- --- --- --- */
+
+    /* ------------------ */
+    /* --- Move order --- */
+    // Gives each move its ordering score in the current position
+    private void scoreMoves(int[] moves, int[] scores, int count, int ply, int hashMove) {
+        BitBoard board = state.getBitBoard();
+        int side = state.getCurrentPlayerId();
+        int enemyTemple = BitBoard.getTempleArch(BitBoard.opponent(side));
+        int[][] sideHistory = history[side];
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int score = 0;
+            if (useHashMove && move == hashMove) {
+                score = HASH_MOVE_SCORE;
+            } else if (useCaptureOrdering && (Move.isCapture(move) || isWinningMove(board, move, enemyTemple))) {
+                score = tacticalScore(board, move, enemyTemple);
+            } else if (useKillers && move == killers[ply][0]) {
+                score = FIRST_KILLER_SCORE;
+            } else if (useKillers && move == killers[ply][1]) {
+                score = SECOND_KILLER_SCORE;
+            } else if (useHistory) {
+                score = sideHistory[Move.getFrom(move)][Move.getTo(move)];
+            }
+            scores[i] = score;
+        }
+    }
+
+    // Winning moves first, then captures, by a pawn before captures by the master
+    private static int tacticalScore(BitBoard board, int move, int enemyTemple) {
+        if (isWinningMove(board, move, enemyTemple)) {
+            return WINNING_MOVE_SCORE;
+        }
+        return CAPTURE_SCORE + (board.isMasterAt(Move.getFrom(move)) ? 0 : PAWN_ATTACKER_BONUS);
+    }
+
+    // Captures the enemy master or brings the own master to the enemy temple arch
+    private static boolean isWinningMove(BitBoard board, int move, int enemyTemple) {
+        int to = Move.getTo(move);
+        if (Move.isCapture(move)) {
+            return board.isMasterAt(to);
+        }
+        return to == enemyTemple && board.isMasterAt(Move.getFrom(move));
+    }
+
+    // Swaps the best scored move of the remaining ones into place and returns it
+    private static int pickNext(int[] moves, int[] scores, int index, int count) {
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        int move = moves[best];
+        moves[best] = moves[index];
+        moves[index] = move;
+        int score = scores[best];
+        scores[best] = scores[index];
+        scores[index] = score;
+        return move;
+    }
+
+    private static void moveToFront(int[] moves, int count, int move) {
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) {
+                System.arraycopy(moves, 0, moves, 1, i);
+                moves[0] = move;
+                return;
+            }
+        }
+    }
+
+    // A quiet move caused a beta cutoff: try it early in sibling positions
+    private void rememberCutoff(int side, int move, int depth, int ply) {
+        if (useKillers && killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        if (useHistory) {
+            int[] fromHistory = history[side][Move.getFrom(move)];
+            int to = Move.getTo(move);
+            fromHistory[to] += depth * depth;
+            if (fromHistory[to] > HISTORY_LIMIT) {
+                ageHistory();
+            }
+        }
+    }
+
+    private void ageHistory() {
+        for (int[][] sideHistory : history) {
+            for (int[] fromHistory : sideHistory) {
+                for (int to = 0; to < fromHistory.length; to++) {
+                    fromHistory[to] >>= 1;
+                }
+            }
+        }
+    }
+    /* --- --- --- --- --- */
+
+    /* ------------------------------ */
+    /* --- Principal variation --- */
+    private void updatePv(int ply, int move) {
+        int[] line = pvTable[ply];
+        line[0] = move;
+        int childLength = (ply + 1 < MAX_PLY) ? pvLength[ply + 1] : 0;
+        if (childLength > 0) {
+            System.arraycopy(pvTable[ply + 1], 0, line, 1, Math.min(childLength, MAX_PLY - 1));
+        }
+        pvLength[ply] = Math.min(childLength + 1, MAX_PLY);
+    }
+
+    private int[] copyPv() {
+        int[] line = new int[pvLength[0]];
+        System.arraycopy(pvTable[0], 0, line, 0, line.length);
+        return line;
+    }
+    /* --- --- --- --- --- */
+}
@@ -0,0 +1,18 @@
+package AI;
+
+/**
+ * Receives the progress of a running search, on the thread running it.
+ * Implementations must return quickly: hand the result over to another thread
+ * (e.g. the Swing event thread) if there is work to do with it.
+ */
+@FunctionalInterface
+public interface SearchListener {
+    // Listener used by default: ignores the progress
+    SearchListener NONE = progress -> {
+    };
+
+    /**
+     * @param progress Best move, score, depth, nodes and principal variation reached so far.
+     */
+    void onProgress(SearchResult progress);
+}
@@ -0,0 +1,129 @@
+package AI;
+
+/**
+ * Switches for the enhancements of {@link SearchEngine}, so their effect on
+ * node counts and time to depth can be measured one by one. Everything is
+ * enabled by default.
+ */
+public class SearchOptions {
+    private boolean quiescence = true;
+    private boolean hashMoveOrdering = true;
+    private boolean captureOrdering = true;
+    private boolean killerMoves = true;
+    private boolean historyHeuristic = true;
+    private boolean principalVariationSearch = true;
+    private boolean aspirationWindows = true;
+    private boolean lateMoveReductions = true;
+
+    public SearchOptions() {
+    }
+
+    public SearchOptions(SearchOptions other) {
+        this.quiescence = other.quiescence;
+        this.hashMoveOrdering = other.hashMoveOrdering;
+        this.captureOrdering = other.captureOrdering;
+        this.killerMoves = other.killerMoves;
+        this.historyHeuristic = other.historyHeuristic;
+        this.principalVariationSearch = other.principalVariationSearch;
+        this.aspirationWindows = other.aspirationWindows;
+        this.lateMoveReductions = other.lateMoveReductions;
+    }
+
+    /**
+     * @return Options with every enhancement disabled: plain alpha-beta with the transposition table.
+     */
+    public static SearchOptions none() {
+        SearchOptions options = new SearchOptions();
+        options.quiescence = false;
+        options.hashMoveOrdering = false;
+        options.captureOrdering = false;
+        options.killerMoves = false;
+        options.historyHeuristic = false;
+        options.principalVariationSearch = false;
+        options.aspirationWindows = false;
+        options.lateMoveReductions = false;
+        return options;
+    }
+
+    /* ------------------------- */
+    /* --- Getters & Setters --- */
+    // Searches captures and master-to-temple moves past the horizon
+    public boolean isQuiescence() {
+        return quiescence;
+    }
+
+    public void setQuiescence(boolean quiescence) {
+        this.quiescence = quiescence;
+    }
+
+    // Tries the move stored in the transposition table first
+    public boolean isHashMoveOrdering() {
+        return hashMoveOrdering;
+    }
+
+    public void setHashMoveOrdering(boolean hashMoveOrdering) {
+        this.hashMoveOrdering = hashMoveOrdering;
+    }
+
+    // Tries winning moves, then captures by pawns, then captures by the master
+    public boolean isCaptureOrdering() {
+        return captureOrdering;
+    }
+
+    public void setCaptureOrdering(boolean captureOrdering) {
+        this.captureOrdering = captureOrdering;
+    }
+
+    // Tries the quiet moves that caused cutoffs at the same ply first
+    public boolean isKillerMoves() {
+        return killerMoves;
+    }
+
+    public void setKillerMoves(boolean killerMoves) {
+        this.killerMoves = killerMoves;
+    }
+
+    // Orders the other quiet moves by how often they caused cutoffs
+    public boolean isHistoryHeuristic() {
+        return historyHeuristic;
+    }
+
+    public void setHistoryHeuristic(boolean historyHeuristic) {
+        this.historyHeuristic = historyHeuristic;
+    }
+
+    // Searches moves after the first with a null window, and again only if they beat it
+    public boolean isPrincipalVariationSearch() {
+        return principalVariationSearch;
+    }
+
+    public void setPrincipalVariationSearch(boolean principalVariationSearch) {
+        this.principalVariationSearch = principalVariationSearch;
+    }
+
+    // Starts each iteration with a narrow window around the previous score
+    public boolean isAspirationWindows() {
+        return aspirationWindows;
+    }
+
+    public void setAspirationWindows(boolean aspirationWindows) {
+        this.aspirationWindows = aspirationWindows;
+    }
+
+    // Searches late quiet moves less deep, and again at full depth if they beat alpha
+    public boolean isLateMoveReductions() {
+        return lateMoveReductions;
+    }
+
+    public void setLateMoveReductions(boolean lateMoveReductions) {
+        this.lateMoveReductions = lateMoveReductions;
+    }
+    /* --- --- --- --- --- */
+
+    @Override
+    public String toString() {
+        return "quiescence=" + quiescence + " hashMove=" + hashMoveOrdering + " captures=" + captureOrdering
+                + " killers=" + killerMoves + " history=" + historyHeuristic + " pvs=" + principalVariationSearch
+                + " aspiration=" + aspirationWindows + " lmr=" + lateMoveReductions;
+    }
+}
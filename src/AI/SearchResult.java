@@ -0,0 +1,93 @@
+package AI;
+
+import Entity.Move;
+
+/**
+ * Outcome of a search: the best move found and how it was found.
+ */
+public class SearchResult {
+    private final int bestMove;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long timeMillis;
+    private final int[] principalVariation;
+
+    public SearchResult(int bestMove, int score, int depth, long nodes, long timeMillis, int[] principalVariation) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+        this.principalVariation = principalVariation;
+    }
+
+    /* --------------- */
+    /* --- Getters --- */
+    /**
+     * @return The packed best move (see {@link Move}), {@link Move#NONE} if the player cannot move.
+     */
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * @return The score of the best move for the player to move.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * @return The last depth completely searched.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public long getNodesPerSecond() {
+        return timeMillis > 0 ? nodes * 1000 / timeMillis : nodes * 1000;
+    }
+
+    /**
+     * @return The expected line of play, starting with the best move.
+     */
+    public int[] getPrincipalVariation() {
+        return principalVariation.clone();
+    }
+
+    public boolean isWin() {
+        return score >= SearchEngine.WIN_SCORE - SearchEngine.MAX_PLY;
+    }
+
+    public boolean isLoss() {
+        return score <= -SearchEngine.WIN_SCORE + SearchEngine.MAX_PLY;
+    }
+    /* --- --- --- --- --- */
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("depth=").append(depth)
+          .append(" score=").append(score)
+          .append(" nodes=").append(nodes)
+          .append(" time=").append(timeMillis).append("ms")
+          .append(" nps=").append(getNodesPerSecond())
+          .append(" pv=");
+        for (int i = 0; i < principalVariation.length; i++) {
+            sb.append(Move.toString(principalVariation[i]));
+            if (i < principalVariation.length - 1) {
+                sb.append(" ");
+            }
+        }
+        return sb.toString();
+    }
+}
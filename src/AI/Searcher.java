@@ -0,0 +1,29 @@
+package AI;
+
+import Entity.GameState;
+
+/**
+ * A search algorithm that picks a move under a wall-clock budget.
+ * Implemented by the single-threaded {@link SearchEngine} and by the parallel searches.
+ */
+public interface Searcher {
+    /**
+     * Searches the position, which is left untouched.
+     * @param timeBudgetMillis Hard time limit; the best move found so far is returned when it runs out.
+     */
+    SearchResult search(GameState root, long timeBudgetMillis);
+
+    /**
+     * Asks a running search to stop as soon as possible. Safe to call from any thread.
+     */
+    void stop();
+
+    /**
+     * Sets the listener told about the progress of the following searches
+     * (after each completed iteration, or periodically). Searchers that cannot
+     * report progress ignore it.
+     * @param listener The listener, null to stop reporting.
+     */
+    default void setSearchListener(SearchListener listener) {
+    }
+}
@@ -0,0 +1,198 @@
+package AI;
+
+import Entity.GameState;
+import Entity.Move;
+import Entity.MoveGenerator;
+import Entity.UndoRecord;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays engine games against itself and streams every visited position, with
+ * the move played, the search score and the final result, to a
+ * {@link TrainingDataWriter}. Games run in parallel, one per thread. Each game
+ * deals and picks its random moves from its own generator, seeded from the run's
+ * seed and the game's index, and the engine forgets earlier games. A run with
+ * {@code --random} or a depth limit (and enough time to reach it) therefore
+ * writes the same records for the same seed, whatever the thread count; only
+ * their order in the shards can differ. With {@code --random} moves are picked
+ * uniformly without searching, which measures the writer at full speed.
+ * <pre>
+ * java -cp out AI.SelfPlay &lt;directory&gt; [--games N] [--time ms] [--depth d] [--threads T] [--seed s] [--random] [--shard-records n]
+ * </pre>
+ */
+public class SelfPlay {
+    // Games still going after this many plies count as draws
+    public static final int MAX_GAME_PLIES = 200;
+
+    private final TrainingDataWriter writer;
+    private final int depth;
+    private final long timePerMoveMillis;
+    private final boolean random;
+    private final int threads;
+    private final AtomicInteger gamesPlayed = new AtomicInteger();
+
+    /* ------------------- */
+    /* --- Constructor --- */
+    /**
+     * @param depth Search depth limit of each move.
+     * @param timePerMoveMillis Search time of each move.
+     * @param random Whether to play uniformly random moves instead of searching.
+     * @param threads Number of games played at the same time.
+     */
+    public SelfPlay(TrainingDataWriter writer, int depth, long timePerMoveMillis, boolean random, int threads) {
+        if (writer == null) {
+            throw new IllegalArgumentException("Writer cannot be null.");
+        }
+        if (depth <= 0 || depth >= SearchEngine.MAX_PLY || timePerMoveMillis <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("Depth, time per move and threads must be positive, depth below "
+                    + SearchEngine.MAX_PLY + ".");
+        }
+        this.writer = writer;
+        this.depth = depth;
+        this.timePerMoveMillis = timePerMoveMillis;
+        this.random = random;
+        this.threads = threads;
+    }
+    /* --- --- --- --- --- */
+
+    /**
+     * Plays the games and hands all their positions to the writer.
+     */
+    public void playGames(int games, long seed) {
+        // One seed per game, so that a game does not depend on which thread plays it
+        SplittableRandom seeds = new SplittableRandom(seed);
+        long[] gameSeeds = new long[games];
+        for (int i = 0; i < games; i++) {
+            gameSeeds[i] = seeds.nextLong();
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "onitama-selfplay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger next = new AtomicInteger();
+        List<Future<?>> running = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            running.add(pool.submit(() -> {
+                SearchEngine engine = random ? null : new SearchEngine();
+                try (TrainingDataWriter.Producer producer = writer.newProducer()) {
+                    int game;
+                    while ((game = next.getAndIncrement()) < games) {
+                        if (engine != null) {
+                            engine.newGame();
+                        }
+                        playGame(engine, new SplittableRandom(gameSeeds[game]), producer);
+                        gamesPlayed.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        try {
+            for (Future<?> future : running) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Self-play interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Self-play game failed.", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void playGame(SearchEngine engine, SplittableRandom generator, TrainingDataWriter.Producer producer) {
+        GameState gameState = new GameState();
+        gameState.initializeGameSetup(generator);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        UndoRecord undo = new UndoRecord();
+
+        int winner = 0;
+        for (int ply = 0; ply < MAX_GAME_PLIES && winner == 0; ply++) {
+            int count = gameState.generateMoves(moves);
+            if (count == 0) {
+                producer.addPosition(gameState, Move.NONE, TrainingDataWriter.NO_SCORE);
+                gameState.switchPlayerTurn();
+                continue;
+            }
+            int move;
+            int score;
+            if (engine == null) {
+                move = moves[generator.nextInt(count)];
+                score = TrainingDataWriter.NO_SCORE;
+            } else {
+                SearchResult result = engine.search(gameState, depth, timePerMoveMillis);
+                move = result.getBestMove();
+                score = result.getScore();
+            }
+            producer.addPosition(gameState, move, score);
+            winner = gameState.makeMove(move, undo);
+        }
+        producer.endGame(winner);
+    }
+
+    public int getGamesPlayed() {
+        return gamesPlayed.get();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: SelfPlay <directory> [--games N] [--time ms] [--depth d] [--threads T] "
+                    + "[--seed s] [--random] [--shard-records n]");
+            return;
+        }
+        Path directory = Paths.get(args[0]);
+        int games = 1000;
+        long time = 50;
+        int depth = SearchEngine.MAX_PLY - 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = System.nanoTime();
+        boolean random = false;
+        long shardRecords = TrainingDataWriter.DEFAULT_SHARD_RECORDS;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--random")) {
+                random = true;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            switch (args[i]) {
+                case "--games": games = Integer.parseInt(args[++i]); break;
+                case "--time": time = Long.parseLong(args[++i]); break;
+                case "--depth": depth = Integer.parseInt(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--shard-records": shardRecords = Long.parseLong(args[++i]); break;
+                default: throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        long start = System.nanoTime();
+        TrainingDataWriter writer = new TrainingDataWriter(directory, "selfplay", shardRecords,
+                TrainingDataWriter.DEFAULT_BUFFER_RECORDS, TrainingDataWriter.DEFAULT_QUEUE_CAPACITY);
+        SelfPlay selfPlay = new SelfPlay(writer, depth, time, random, threads);
+        try {
+            selfPlay.playGames(games, seed);
+        } finally {
+            writer.close();
+        }
+        long elapsed = Math.max(1, (System.nanoTime() - start) / 1_000_000L);
+        System.out.println(selfPlay.getGamesPlayed() + " games, " + writer.getRecordsWritten() + " positions in "
+                + writer.getShardCount() + " shards of " + directory + " (" + elapsed + " ms, "
+                + writer.getRecordsWritten() * 1000 / elapsed + " positions/s)");
+        System.out.println("Writer: " + writer.getBuffersSubmitted() + " buffers, queue high water "
+                + writer.getQueueHighWater() + "/" + writer.getBufferCount() + ", " + writer.getStalls()
+                + " stalls (" + writer.getStallMillis() + " ms)");
+    }
+}
@@ -0,0 +1,263 @@
+package AI;
+
+import Entity.BitBoard;
+import Entity.GameState;
+import Entity.MoveCard;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Endgame tablebases built by {@link TablebaseGenerator}, memory-mapped read-only.
+ * <p>
+ * Once dealt, the same five cards stay in play for the whole game, so there is
+ * one file per set of five {@link Entity.Deck} cards, covering every position
+ * with both masters and at most K - 1 pawns per side, both sides to move and
+ * the 30 ways to distribute the five cards. Each position takes one byte:
+ * <pre>
+ * 0          : draw (neither side can force a win)
+ * odd  n     : the side to move wins in n plies
+ * even n > 0 : the side to move loses in n plies
+ * 255        : not a reachable position
+ * </pre>
+ * {@link #probe} reads one byte of a mapped file and allocates nothing.
+ */
+public class Tablebase {
+    public static final int NOT_FOUND = -1;
+    public static final int DRAW = 0;
+    public static final int MAX_PIECES_PER_SIDE = 2;
+
+    static final int MAGIC = 0x4F4E5442; // "ONTB"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int INVALID = 0xFF;
+    static final String FILE_PREFIX = "onitama-tb-";
+    static final String FILE_SUFFIX = ".bin";
+
+    // Ways to deal 5 cards: 10 pairs for Player 1, 3 pairs for Player 2 among the 3 left
+    static final int DISTRIBUTIONS = 30;
+    private static final int SQUARE_VALUES = BitBoard.SQUARES + 1; // Pawn slot: 0 = empty, else square + 1
+
+    // Local distributions: masks over the 5 cards of the set (bit i = i-th lowest deck index)
+    static final int[] LOCAL_P1 = new int[DISTRIBUTIONS];
+    static final int[] LOCAL_P2 = new int[DISTRIBUTIONS];
+    private static final int[] LOCAL_INDEX = new int[32 * 32];
+
+    static {
+        Arrays.fill(LOCAL_INDEX, -1);
+        int d = 0;
+        for (int p1 = 0; p1 < 32; p1++) {
+            if (Integer.bitCount(p1) != 2) continue;
+            for (int p2 = 0; p2 < 32; p2++) {
+                if (Integer.bitCount(p2) != 2 || (p1 & p2) != 0) continue;
+                LOCAL_P1[d] = p1;
+                LOCAL_P2[d] = p2;
+                LOCAL_INDEX[(p1 << 5) | p2] = d++;
+            }
+        }
+    }
+
+    // Mapped files indexed by the mask of the five deck card ids, null if not available
+    private final MappedByteBuffer[] tables = new MappedByteBuffer[1 << 16];
+    private final int[] pieces = new int[1 << 16];
+    private int fileCount;
+
+    /* ------------------- */
+    /* --- Constructor --- */
+    /**
+     * Maps every tablebase file of the directory.
+     */
+    public Tablebase(Path directory) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                load(file);
+            }
+        }
+    }
+
+    private void load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not an Onitama tablebase: " + file);
+            }
+            int k = buffer.getInt(8);
+            int cardMask = buffer.getInt(12);
+            if (buffer.getInt(16) != entryCount(k) || channel.size() != HEADER_SIZE + (long) entryCount(k)) {
+                throw new IOException("Truncated tablebase: " + file);
+            }
+            // Keep the largest table when a card set has several
+            if (tables[cardMask] == null || pieces[cardMask] < k) {
+                if (tables[cardMask] == null) {
+                    fileCount++;
+                }
+                tables[cardMask] = buffer;
+                pieces[cardMask] = k;
+            }
+        }
+    }
+    /* --- --- --- --- --- */
+
+    /* ------------- */
+    /* --- Probe --- */
+    /**
+     * @return The tablebase value of the position for the side to move (see the class comment),
+     *         {@link #NOT_FOUND} if the position is not covered.
+     */
+    public int probe(GameState gameState) {
+        BitBoard bitBoard = gameState.getBitBoard();
+        int m1 = bitBoard.getMasterSquare(1);
+        int m2 = bitBoard.getMasterSquare(2);
+        if (m1 < 0 || m2 < 0) {
+            return NOT_FOUND;
+        }
+        int pawns1 = bitBoard.getPawns(1);
+        int pawns2 = bitBoard.getPawns(2);
+        int maxPawns = Math.max(Integer.bitCount(pawns1), Integer.bitCount(pawns2));
+        if (maxPawns >= MAX_PIECES_PER_SIDE) {
+            return NOT_FOUND;
+        }
+
+        MoveCard neutral = gameState.getNeutralCardMove();
+        if (neutral == null || neutral.getId() == MoveCard.NO_ID) {
+            return NOT_FOUND;
+        }
+        int hand1 = gameState.getPlayer1().getCardMask();
+        int hand2 = gameState.getPlayer2().getCardMask();
+        int cardMask = hand1 | hand2 | (1 << neutral.getId());
+        MappedByteBuffer table = tables[cardMask];
+        if (table == null || Integer.bitCount(cardMask) != 5 || maxPawns > pieces[cardMask] - 1) {
+            return NOT_FOUND;
+        }
+
+        int k = pieces[cardMask];
+        int distribution = localDistribution(cardMask, hand1, hand2);
+        int index = index(k, distribution, gameState.getCurrentPlayerId(), m1, m2,
+                encodePawns(pawns1, k), encodePawns(pawns2, k));
+        int value = table.get(HEADER_SIZE + index) & 0xFF;
+        return value == INVALID ? NOT_FOUND : value;
+    }
+
+    public static boolean isWin(int value) {
+        return (value & 1) == 1;
+    }
+
+    public static boolean isLoss(int value) {
+        return value > 0 && (value & 1) == 0;
+    }
+
+    /**
+     * @return The number of plies until the game ends with best play, for a win or a loss.
+     */
+    public static int getDistance(int value) {
+        return value;
+    }
+
+    public int getFileCount() {
+        return fileCount;
+    }
+    /* --- --- --- --- --- */
+
+    /* ------------- */
+    /* --- Index --- */
+    // Number of codes for the pawns of one side: K - 1 slots of 26 values
+    static int pawnCodes(int k) {
+        int codes = 1;
+        for (int i = 1; i < k; i++) {
+            codes *= SQUARE_VALUES;
+        }
+        return codes;
+    }
+
+    static int entryCount(int k) {
+        long count = (long) DISTRIBUTIONS * 2 * BitBoard.SQUARES * BitBoard.SQUARES * pawnCodes(k) * pawnCodes(k);
+        if (count > Integer.MAX_VALUE - HEADER_SIZE) {
+            throw new IllegalArgumentException("Tablebase with " + k + " pieces per side is too large.");
+        }
+        return (int) count;
+    }
+
+    static int index(int k, int distribution, int sideToMove, int m1, int m2, int pawns1Code, int pawns2Code) {
+        int codes = pawnCodes(k);
+        return ((((distribution * 2 + sideToMove - 1) * BitBoard.SQUARES + m1) * BitBoard.SQUARES + m2)
+                * codes + pawns1Code) * codes + pawns2Code;
+    }
+
+    // Pawns as base-26 digits, highest square first, empty slots last
+    static int encodePawns(int pawns, int k) {
+        int code = 0;
+        int slots = k - 1;
+        for (int m = pawns; m != 0; slots--) {
+            int sq = 31 - Integer.numberOfLeadingZeros(m);
+            m &= ~(1 << sq);
+            code = code * SQUARE_VALUES + sq + 1;
+        }
+        for (; slots > 0; slots--) {
+            code *= SQUARE_VALUES;
+        }
+        return code;
+    }
+
+    /**
+     * @return The pawn mask of a code, -1 if the code is not canonical.
+     */
+    static int decodePawns(int code, int k) {
+        int mask = 0;
+        int previous = Integer.MAX_VALUE; // Digits must decrease, then be empty
+        for (int divisor = pawnCodes(k) / SQUARE_VALUES; divisor > 0; divisor /= SQUARE_VALUES) {
+            int digit = (code / divisor) % SQUARE_VALUES;
+            if (digit != 0 && digit >= previous) {
+                return -1;
+            }
+            if (digit != 0) {
+                mask |= 1 << (digit - 1);
+            }
+            previous = digit == 0 ? 0 : digit;
+        }
+        return mask;
+    }
+
+    // Local distribution of the hands among the five cards of the set
+    static int localDistribution(int cardMask, int hand1, int hand2) {
+        int local1 = 0;
+        int local2 = 0;
+        int slot = 0;
+        for (int m = cardMask; m != 0; m &= m - 1, slot++) {
+            int b = m & -m;
+            if ((hand1 & b) != 0) local1 |= 1 << slot;
+            if ((hand2 & b) != 0) local2 |= 1 << slot;
+        }
+        return LOCAL_INDEX[(local1 << 5) | local2];
+    }
+
+    // Distribution after the side plays the card of its hand in the given local slot
+    static int nextDistribution(int distribution, int sideToMove, int playedSlot) {
+        int p1 = LOCAL_P1[distribution];
+        int p2 = LOCAL_P2[distribution];
+        int neutral = 0x1F & ~(p1 | p2);
+        if (sideToMove == 1) {
+            p1 = (p1 & ~(1 << playedSlot)) | neutral;
+        } else {
+            p2 = (p2 & ~(1 << playedSlot)) | neutral;
+        }
+        return LOCAL_INDEX[(p1 << 5) | p2];
+    }
+
+    static String fileName(int k, int cardMask) {
+        return FILE_PREFIX + k + "-" + String.format("%04x", cardMask) + FILE_SUFFIX;
+    }
+
+    static ByteBuffer header(int k, int cardMask) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(k).putInt(cardMask).putInt(entryCount(k));
+        header.clear();
+        return header;
+    }
+    /* --- --- --- --- --- */
+}
@@ -0,0 +1,303 @@
+package AI;
+
+import Entity.BitBoard;
+import Entity.Deck;
+import Entity.MoveTable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Offline tool solving small endgames by retrograde analysis and writing the
+ * files read by {@link Tablebase}.
+ * <p>
+ * For a set of five cards, every position with both masters and up to K - 1
+ * pawns per side is solved by passes over the whole table. Pass n only finds
+ * positions decided in exactly n plies: on odd passes, wins reached by a move
+ * into a position lost in n - 1 plies; on even passes, losses where every move
+ * leads to a position won by the opponent. Positions still open when two passes
+ * in a row find nothing are draws. A pass only writes the value n and only reads
+ * values below n, so positions are split between threads without locking.
+ * <pre>
+ * java -cp out AI.TablebaseGenerator &lt;outputDir&gt; [--pieces K] [--threads N] [--cards A,B,C,D,E | --all]
+ * </pre>
+ */
+public class TablebaseGenerator {
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final int MAX_PLIES = 254;
+
+    private final int k;
+    private final int threads;
+
+    /* ------------------- */
+    /* --- Constructor --- */
+    /**
+     * @param piecesPerSide K: the master plus up to K - 1 pawns per side.
+     * @param threads Number of threads used by each pass.
+     */
+    public TablebaseGenerator(int piecesPerSide, int threads) {
+        if (piecesPerSide < 1 || piecesPerSide > Tablebase.MAX_PIECES_PER_SIDE) {
+            throw new IllegalArgumentException("Pieces per side must be between 1 and " + Tablebase.MAX_PIECES_PER_SIDE + ".");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive.");
+        }
+        this.k = piecesPerSide;
+        this.threads = threads;
+    }
+    /* --- --- --- --- --- */
+
+    /* ---------------- */
+    /* --- Generate --- */
+    /**
+     * Solves the positions of a card set.
+     * @param cardMask Mask of the ids of the five deck cards.
+     * @return The table, one byte per position (see {@link Tablebase}).
+     */
+    public byte[] generate(int cardMask) {
+        if (Integer.bitCount(cardMask) != 5 || (cardMask >>> Deck.size()) != 0) {
+            throw new IllegalArgumentException("A card set must hold exactly 5 deck cards.");
+        }
+        int[] cards = new int[5];
+        int slot = 0;
+        for (int m = cardMask; m != 0; m &= m - 1) {
+            cards[slot++] = Integer.numberOfTrailingZeros(m);
+        }
+
+        byte[] table = new byte[Tablebase.entryCount(k)];
+        runPass(table, cards, 0);
+        int idlePasses = 0;
+        for (int pass = 1; pass <= MAX_PLIES && idlePasses < 2; pass++) {
+            long solved = runPass(table, cards, pass);
+            idlePasses = solved == 0 ? idlePasses + 1 : 0;
+        }
+        return table;
+    }
+
+    // Pass 0 marks unreachable positions, pass n solves positions decided in n plies
+    private long runPass(byte[] table, int[] cards, int pass) {
+        int chunks = (table.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.submit(() -> IntStream.range(0, chunks).parallel()
+                    .mapToLong(chunk -> solveChunk(table, cards, pass, chunk * CHUNK_SIZE,
+                            Math.min(table.length, (chunk + 1) * CHUNK_SIZE)))
+                    .sum()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Tablebase generation interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Tablebase generation failed.", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private long solveChunk(byte[] table, int[] cards, int pass, int from, int to) {
+        int codes = Tablebase.pawnCodes(k);
+        long solved = 0;
+        for (int index = from; index < to; index++) {
+            if (table[index] != 0) {
+                continue; // Solved or unreachable
+            }
+            int rest = index;
+            int pawns2 = Tablebase.decodePawns(rest % codes, k);
+            rest /= codes;
+            int pawns1 = Tablebase.decodePawns(rest % codes, k);
+            rest /= codes;
+            int m2 = rest % BitBoard.SQUARES;
+            rest /= BitBoard.SQUARES;
+            int m1 = rest % BitBoard.SQUARES;
+            rest /= BitBoard.SQUARES;
+            int side = (rest & 1) + 1;
+            int distribution = rest >>> 1;
+
+            if (pass == 0) {
+                if (!isReachable(m1, m2, pawns1, pawns2)) {
+                    table[index] = (byte) Tablebase.INVALID;
+                    solved++;
+                }
+                continue;
+            }
+
+            int value = solve(table, cards, pass, distribution, side, m1, m2, pawns1, pawns2);
+            if (value != 0) {
+                table[index] = (byte) value;
+                solved++;
+            }
+        }
+        return solved;
+    }
+
+    private static boolean isReachable(int m1, int m2, int pawns1, int pawns2) {
+        if (pawns1 < 0 || pawns2 < 0 || m1 == m2 || (pawns1 & pawns2) != 0) {
+            return false;
+        }
+        int masters = (1 << m1) | (1 << m2);
+        if (((pawns1 | pawns2) & masters) != 0) {
+            return false;
+        }
+        // A master standing on the opponent's temple arch has already won
+        return m1 != BitBoard.getTempleArch(2) && m2 != BitBoard.getTempleArch(1);
+    }
+
+    /**
+     * @return The pass number if the position is decided in that many plies, 0 otherwise.
+     */
+    private int solve(byte[] table, int[] cards, int pass, int distribution, int side,
+            int m1, int m2, int pawns1, int pawns2) {
+        int opponent = BitBoard.opponent(side);
+        int ownMaster = side == 1 ? m1 : m2;
+        int ownPawns = side == 1 ? pawns1 : pawns2;
+        int enemyMaster = side == 1 ? m2 : m1;
+        int enemyPawns = side == 1 ? pawns2 : pawns1;
+        int own = ownPawns | (1 << ownMaster);
+        int enemyTemple = BitBoard.getTempleArch(opponent);
+        boolean winsPass = (pass & 1) == 1;
+
+        int hand = side == 1 ? Tablebase.LOCAL_P1[distribution] : Tablebase.LOCAL_P2[distribution];
+        boolean anyMove = false;
+        for (int h = hand; h != 0; h &= h - 1) {
+            int cardSlot = Integer.numberOfTrailingZeros(h);
+            int card = cards[cardSlot];
+            int childDistribution = Tablebase.nextDistribution(distribution, side, cardSlot);
+            for (int pieces = own; pieces != 0; pieces &= pieces - 1) {
+                int from = Integer.numberOfTrailingZeros(pieces);
+                boolean master = from == ownMaster;
+                for (int targets = MoveTable.getTargets(card, side, from) & ~own; targets != 0; targets &= targets - 1) {
+                    int to = Integer.numberOfTrailingZeros(targets);
+                    anyMove = true;
+                    if (to == enemyMaster || (master && to == enemyTemple)) {
+                        if (pass == 1) {
+                            return 1; // Wins on the spot
+                        }
+                        if (!winsPass) {
+                            return 0; // Not lost
+                        }
+                        continue;
+                    }
+                    int childOwnMaster = master ? to : ownMaster;
+                    int childOwnPawns = master ? ownPawns : (ownPawns & ~(1 << from)) | (1 << to);
+                    int childEnemyPawns = enemyPawns & ~(1 << to);
+                    int child = side == 1
+                            ? childIndex(childDistribution, opponent, childOwnMaster, enemyMaster, childOwnPawns, childEnemyPawns)
+                            : childIndex(childDistribution, opponent, enemyMaster, childOwnMaster, childEnemyPawns, childOwnPawns);
+                    int childValue = table[child] & 0xFF;
+                    if (winsPass) {
+                        if (pass > 1 && childValue == pass - 1) {
+                            return pass; // The opponent loses after this move
+                        }
+                    } else if (childValue == 0 || (childValue & 1) == 0) {
+                        return 0; // Some move does not lose (yet)
+                    }
+                }
+            }
+        }
+
+        if (!anyMove) {
+            // No legal move: the turn passes with the same cards
+            int child = childIndex(distribution, opponent, m1, m2, pawns1, pawns2);
+            int childValue = table[child] & 0xFF;
+            if (winsPass) {
+                return pass > 1 && childValue == pass - 1 ? pass : 0;
+            }
+            return childValue != 0 && (childValue & 1) == 1 ? pass : 0;
+        }
+        return winsPass ? 0 : pass;
+    }
+
+    private int childIndex(int distribution, int side, int m1, int m2, int pawns1, int pawns2) {
+        return Tablebase.index(k, distribution, side, m1, m2,
+                Tablebase.encodePawns(pawns1, k), Tablebase.encodePawns(pawns2, k));
+    }
+    /* --- --- --- --- --- */
+
+    /* ------------- */
+    /* --- Files --- */
+    /**
+     * Solves a card set and writes its file into the directory.
+     * @return The file written.
+     */
+    public Path generateFile(int cardMask, Path directory) throws IOException {
+        byte[] table = generate(cardMask);
+        Path file = directory.resolve(Tablebase.fileName(k, cardMask));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = Tablebase.header(k, cardMask);
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            ByteBuffer body = ByteBuffer.wrap(table);
+            while (body.hasRemaining()) {
+                channel.write(body);
+            }
+        }
+        return file;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: TablebaseGenerator <outputDir> [--pieces K] [--threads N] [--cards A,B,C,D,E | --all]");
+            return;
+        }
+        Path directory = Paths.get(args[0]);
+        int pieces = Tablebase.MAX_PIECES_PER_SIDE;
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<Integer> cardSets = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--pieces") && i + 1 < args.length) {
+                pieces = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--cards") && i + 1 < args.length) {
+                cardSets.add(parseCards(args[++i]));
+            } else if (args[i].equals("--all")) {
+                for (int mask = 0; mask < 1 << Deck.size(); mask++) {
+                    if (Integer.bitCount(mask) == 5) {
+                        cardSets.add(mask);
+                    }
+                }
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        if (cardSets.isEmpty()) {
+            throw new IllegalArgumentException("Give a card set with --cards or use --all.");
+        }
+
+        Files.createDirectories(directory);
+        TablebaseGenerator generator = new TablebaseGenerator(pieces, threads);
+        for (int cardMask : cardSets) {
+            long start = System.nanoTime();
+            Path file = generator.generateFile(cardMask, directory);
+            System.out.println(file + " (" + (System.nanoTime() - start) / 1_000_000L + " ms)");
+        }
+    }
+
+    private static int parseCards(String names) {
+        int mask = 0;
+        for (String name : names.split(",")) {
+            int id = -1;
+            for (int i = 0; i < Deck.size(); i++) {
+                if (Deck.getCard(i).getCardName().equalsIgnoreCase(name.trim())) {
+                    id = i;
+                }
+            }
+            if (id < 0) {
+                throw new IllegalArgumentException("Unknown card: " + name);
+            }
+            mask |= 1 << id;
+        }
+        return mask;
+    }
+    /* --- --- --- --- --- */
+}
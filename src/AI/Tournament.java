@@ -0,0 +1,414 @@
+package AI;
+
+import Entity.CardDistribution;
+import Entity.GameState;
+import Entity.Move;
+import Entity.UndoRecord;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless match between two {@link EngineConfig}s, to test engine changes.
+ * Games are played in pairs on the same deal, each engine playing each color
+ * once, so the luck of the deal cancels out. Pairs run in parallel, one per
+ * thread, each thread with its own pair of engines; nothing touches Swing.
+ * <p>
+ * The result is reported from the first engine's side: score, Elo difference
+ * with a 95% error bar, and optionally a sequential probability ratio test
+ * (SPRT) that stops the match as soon as one hypothesis is accepted. The
+ * statistics treat each pair as one sample (pentanomial model), which accounts
+ * for the correlation between the two games of a deal.
+ * <pre>
+ * java -cp out AI.Tournament [--games N] [--engine1 spec] [--engine2 spec] [--concurrency n] [--seed s] [--sprt elo0,elo1[,alpha,beta]]
+ * </pre>
+ */
+public class Tournament {
+    // Games still going after this many plies are drawn (cards cycle, so games can loop)
+    public static final int MAX_GAME_PLIES = 300;
+    private static final long PROGRESS_INTERVAL_NANOS = 10_000_000_000L;
+    private static final double Z_95 = 1.96;
+
+    private final EngineConfig first;
+    private final EngineConfig second;
+    private final int concurrency;
+    private final long seed;
+
+    private boolean sprt;
+    private double elo0;
+    private double elo1;
+    private double alpha = 0.05;
+    private double beta = 0.05;
+
+    // Pairs by points of the first engine, in half points: 0 (two losses) to 4 (two wins)
+    private final long[] pairCounts = new long[5];
+    private long wins;
+    private long draws;
+    private long losses;
+    private volatile boolean decided;
+    private long start;
+    private long lastProgress;
+
+    /* ------------------- */
+    /* --- Constructor --- */
+    /**
+     * @param concurrency Number of games played at the same time.
+     * @param seed Seed of the deals, so that a match can be replayed on the same deals.
+     */
+    public Tournament(EngineConfig first, EngineConfig second, int concurrency, long seed) {
+        if (first == null || second == null) {
+            throw new IllegalArgumentException("Engine configs cannot be null.");
+        }
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("Concurrency must be positive.");
+        }
+        this.first = first;
+        this.second = second;
+        this.concurrency = concurrency;
+        this.seed = seed;
+    }
+    /* --- --- --- --- --- */
+
+    /**
+     * Stops the match early once the first engine is shown to be at least elo1
+     * stronger (H1), or not more than elo0 stronger (H0).
+     * @param alpha Probability of accepting H1 when H0 is true.
+     * @param beta Probability of accepting H0 when H1 is true.
+     */
+    public void setSprt(double elo0, double elo1, double alpha, double beta) {
+        if (elo1 <= elo0 || alpha <= 0 || alpha >= 1 || beta <= 0 || beta >= 1) {
+            throw new IllegalArgumentException("SPRT needs elo0 < elo1 and error rates between 0 and 1.");
+        }
+        this.sprt = true;
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.alpha = alpha;
+        this.beta = beta;
+    }
+
+    /* ------------- */
+    /* --- Match --- */
+    /**
+     * Plays the match, printing progress lines now and then.
+     * @param games Number of games, rounded up to an even number; fewer if SPRT stops early.
+     */
+    public void run(int games, PrintStream out) {
+        int pairs = (games + 1) / 2;
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] deals = new int[pairs];
+        for (int i = 0; i < pairs; i++) {
+            deals[i] = random.nextInt(CardDistribution.COUNT);
+        }
+
+        start = System.nanoTime();
+        lastProgress = start;
+        AtomicInteger nextPair = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "onitama-tournament");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> workers = new ArrayList<>(concurrency);
+            for (int t = 0; t < concurrency; t++) {
+                workers.add(pool.submit(() -> playPairs(deals, nextPair, out)));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Tournament game failed.", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Worker loop: takes the next deal until all are played or SPRT has decided
+    private void playPairs(int[] deals, AtomicInteger nextPair, PrintStream out) {
+        try (EngineConfig.Engine engine1 = first.newEngine(); EngineConfig.Engine engine2 = second.newEngine()) {
+            int pair;
+            while (!decided && (pair = nextPair.getAndIncrement()) < deals.length) {
+                GameState deal = GameState.newDeal(deals[pair]);
+                engine1.newGame();
+                engine2.newGame();
+                int firstAsPlayer1 = playGame(deal, engine1, engine2);
+                engine1.newGame();
+                engine2.newGame();
+                int firstAsPlayer2 = playGame(deal, engine2, engine1);
+                record(points(firstAsPlayer1, 1), points(firstAsPlayer2, 2), out);
+            }
+        }
+    }
+
+    /**
+     * Plays one game from the given position, which is left untouched.
+     * @return The id of the winner, 0 for a game drawn at {@link #MAX_GAME_PLIES}.
+     */
+    public static int playGame(GameState start, EngineConfig.Engine player1, EngineConfig.Engine player2) {
+        GameState game = new GameState(start);
+        UndoRecord undo = new UndoRecord();
+        for (int ply = 0; ply < MAX_GAME_PLIES; ply++) {
+            EngineConfig.Engine engine = game.getCurrentPlayerId() == 1 ? player1 : player2;
+            int move = engine.chooseMove(game);
+            if (move == Move.NONE) {
+                game.switchPlayerTurn(); // No legal move: the turn passes
+                continue;
+            }
+            int winner = game.makeMove(move, undo);
+            if (winner != 0) {
+                return winner;
+            }
+        }
+        return 0;
+    }
+
+    // Half points of the first engine in a game where it played the given side
+    private static int points(int winner, int side) {
+        return winner == 0 ? 1 : (winner == side ? 2 : 0);
+    }
+
+    private synchronized void record(int game1, int game2, PrintStream out) {
+        pairCounts[game1 + game2]++;
+        for (int points : new int[] { game1, game2 }) {
+            if (points == 2) {
+                wins++;
+            } else if (points == 1) {
+                draws++;
+            } else {
+                losses++;
+            }
+        }
+        if (sprt && (getLlr() >= getUpperBound() || getLlr() <= getLowerBound())) {
+            decided = true;
+        }
+        long now = System.nanoTime();
+        if (now - lastProgress >= PROGRESS_INTERVAL_NANOS) {
+            lastProgress = now;
+            out.println(progressLine());
+        }
+    }
+    /* --- --- --- --- --- */
+
+    /* ------------------ */
+    /* --- Statistics --- */
+    public synchronized long getGames() {
+        return wins + draws + losses;
+    }
+
+    public synchronized long getWins() {
+        return wins;
+    }
+
+    public synchronized long getDraws() {
+        return draws;
+    }
+
+    public synchronized long getLosses() {
+        return losses;
+    }
+
+    /**
+     * @return The number of pairs in which the first engine scored 0, 0.5, 1, 1.5 and 2 points.
+     */
+    public synchronized long[] getPairCounts() {
+        return pairCounts.clone();
+    }
+
+    /**
+     * @return The average score of the first engine per game, between 0 and 1.
+     */
+    public synchronized double getScore() {
+        long pairs = pairCount();
+        if (pairs == 0) {
+            return 0.5;
+        }
+        double total = 0;
+        for (int k = 0; k < pairCounts.length; k++) {
+            total += pairCounts[k] * k / 4.0;
+        }
+        return total / pairs;
+    }
+
+    /**
+     * @return The Elo difference matching the score, positive when the first engine is stronger.
+     */
+    public synchronized double getElo() {
+        return elo(getScore());
+    }
+
+    /**
+     * @return The lower end of the 95% confidence interval of {@link #getElo},
+     *         negative infinity if the score interval reaches 0, NaN before two pairs.
+     */
+    public synchronized double getEloLowerBound() {
+        long pairs = pairCount();
+        if (pairs < 2) {
+            return Double.NaN;
+        }
+        return elo(getScore() - Z_95 * Math.sqrt(pairVariance() / pairs));
+    }
+
+    /**
+     * @return The upper end of the 95% confidence interval of {@link #getElo},
+     *         positive infinity if the score interval reaches 1, NaN before two pairs.
+     */
+    public synchronized double getEloUpperBound() {
+        long pairs = pairCount();
+        if (pairs < 2) {
+            return Double.NaN;
+        }
+        return elo(getScore() + Z_95 * Math.sqrt(pairVariance() / pairs));
+    }
+
+    /**
+     * @return The log-likelihood ratio of H1 against H0, in the normal approximation
+     *         of the pair scores; 0 until the samples vary.
+     */
+    public synchronized double getLlr() {
+        double variance = pairVariance();
+        if (variance == 0) {
+            return 0;
+        }
+        double score0 = expectedScore(elo0);
+        double score1 = expectedScore(elo1);
+        return pairCount() * (score1 - score0) * (2 * getScore() - score0 - score1) / (2 * variance);
+    }
+
+    /**
+     * @return The LLR below which H0 is accepted.
+     */
+    public double getLowerBound() {
+        return Math.log(beta / (1 - alpha));
+    }
+
+    /**
+     * @return The LLR above which H1 is accepted.
+     */
+    public double getUpperBound() {
+        return Math.log((1 - beta) / alpha);
+    }
+
+    private long pairCount() {
+        long pairs = 0;
+        for (long count : pairCounts) {
+            pairs += count;
+        }
+        return pairs;
+    }
+
+    // Variance of the per-game score of a pair
+    private double pairVariance() {
+        long pairs = pairCount();
+        if (pairs == 0) {
+            return 0;
+        }
+        double mean = getScore();
+        double variance = 0;
+        for (int k = 0; k < pairCounts.length; k++) {
+            double deviation = k / 4.0 - mean;
+            variance += pairCounts[k] * deviation * deviation;
+        }
+        return variance / pairs;
+    }
+
+    // Logistic Elo model
+    private static double elo(double score) {
+        if (score <= 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (score >= 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    private static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+    /* --- --- --- --- --- */
+
+    /* -------------- */
+    /* --- Report --- */
+    private String progressLine() {
+        return String.format("%d games  +%d =%d -%d  score %.1f%%  Elo %s%s", getGames(), wins, draws,
+                losses, 100 * getScore(), formatElo(),
+                sprt ? String.format("  LLR %.2f [%.2f, %.2f]", getLlr(), getLowerBound(), getUpperBound()) : "");
+    }
+
+    // Elo with its confidence interval, "n/a" where a value is infinite or undefined
+    private String formatElo() {
+        return formatElo(getElo()) + " [" + formatElo(getEloLowerBound()) + ", " + formatElo(getEloUpperBound()) + "]";
+    }
+
+    private static String formatElo(double elo) {
+        return Double.isFinite(elo) ? String.format("%+.1f", elo) : "n/a";
+    }
+
+    /**
+     * Prints the final result of the match.
+     */
+    public synchronized void printReport(PrintStream out) {
+        long elapsed = Math.max(1, (System.nanoTime() - start) / 1_000_000L);
+        out.println("Engine 1: " + first + "  vs  Engine 2: " + second);
+        out.println("Games: " + getGames() + "  engine 1 wins " + wins + ", draws " + draws + ", engine 2 wins " + losses);
+        out.println("Pairs by engine 1 points (0, 0.5, 1, 1.5, 2): " + pairCounts[0] + " " + pairCounts[1] + " "
+                + pairCounts[2] + " " + pairCounts[3] + " " + pairCounts[4]);
+        out.printf("Score: %.2f%%  Elo: %s (95%%)%n", 100 * getScore(), formatElo());
+        if (sprt) {
+            String verdict = getLlr() >= getUpperBound() ? "H1 accepted (engine 1 is stronger)"
+                    : getLlr() <= getLowerBound() ? "H0 accepted (engine 1 is not stronger)" : "undecided";
+            out.printf("SPRT elo0=%.1f elo1=%.1f alpha=%.2f beta=%.2f: LLR %.2f [%.2f, %.2f] %s%n", elo0, elo1,
+                    alpha, beta, getLlr(), getLowerBound(), getUpperBound(), verdict);
+        }
+        out.printf("Time: %.1f s, %d games/hour%n", elapsed / 1000.0, getGames() * 3_600_000L / elapsed);
+    }
+    /* --- --- --- --- --- */
+
+    public static void main(String[] args) {
+        int games = 1000;
+        String spec1 = "";
+        String spec2 = "";
+        int concurrency = Runtime.getRuntime().availableProcessors();
+        long seed = System.nanoTime();
+        double[] sprtArgs = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--games") && i + 1 < args.length) {
+                games = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--engine1") && i + 1 < args.length) {
+                spec1 = args[++i];
+            } else if (args[i].equals("--engine2") && i + 1 < args.length) {
+                spec2 = args[++i];
+            } else if (args[i].equals("--concurrency") && i + 1 < args.length) {
+                concurrency = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--seed") && i + 1 < args.length) {
+                seed = Long.parseLong(args[++i]);
+            } else if (args[i].equals("--sprt") && i + 1 < args.length) {
+                String[] values = args[++i].split(",");
+                if (values.length != 2 && values.length != 4) {
+                    throw new IllegalArgumentException("--sprt expects elo0,elo1 or elo0,elo1,alpha,beta.");
+                }
+                sprtArgs = new double[] { Double.parseDouble(values[0]), Double.parseDouble(values[1]),
+                        values.length == 4 ? Double.parseDouble(values[2]) : 0.05,
+                        values.length == 4 ? Double.parseDouble(values[3]) : 0.05 };
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        Tournament tournament = new Tournament(EngineConfig.parse(spec1), EngineConfig.parse(spec2), concurrency, seed);
+        if (sprtArgs != null) {
+            tournament.setSprt(sprtArgs[0], sprtArgs[1], sprtArgs[2], sprtArgs[3]);
+        }
+        System.out.println("Playing " + games + " games on " + concurrency + " threads, deal seed " + seed);
+        tournament.run(games, System.out);
+        tournament.printReport(System.out);
+    }
+}
@@ -0,0 +1,407 @@
+package AI;
+
+import Entity.GameState;
+import Entity.Move;
+import Entity.PackedPosition;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams self-play positions to disk as fixed-size binary records, for training
+ * an evaluation. Each game thread writes through its own {@link Producer}, which
+ * holds the positions of the current game until its result is known, then
+ * encodes them into a direct buffer. Full buffers go through a bounded queue to a
+ * single writer thread, which writes them with a {@link FileChannel} and returns
+ * them to a pool. Game threads never touch the disk.
+ * <p>
+ * Output is split into shards {@code <prefix>-00000.bin}, {@code <prefix>-00001.bin}, ...
+ * of at most a fixed number of records. Each shard is a header followed by records:
+ * <pre>
+ * header: int magic "ONTD" | int version | int record size | int shard index
+ * record: long packed position | int move | short score | byte result | byte ply
+ * </pre>
+ * The position is a {@link PackedPosition}, the move a packed {@link Move}
+ * ({@link Move#NONE} for a pass), the score the search score for the player to
+ * move ({@link #NO_SCORE} if none), the result 1, 0 or -1 for a win, draw or
+ * loss of the player to move, and the ply capped at 255. Values are big-endian.
+ * Each record stands alone: with several producers, the records of a game can be
+ * split by records of other games.
+ * <p>
+ * The pool holds a fixed number of buffers, the queue capacity plus one per
+ * producer, so the queue and the memory stay bounded. When the disk falls behind,
+ * a producer waits for a free buffer; these stalls are counted as back-pressure
+ * metrics.
+ */
+public class TrainingDataWriter implements Closeable {
+    static final int MAGIC = 0x4F4E5444; // "ONTD"
+    static final int VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final int RECORD_SIZE = 16;
+    public static final short NO_SCORE = Short.MIN_VALUE;
+
+    public static final long DEFAULT_SHARD_RECORDS = 1L << 22; // 64 MB shards
+    public static final int DEFAULT_BUFFER_RECORDS = 4096;
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+    private final Path directory;
+    private final String prefix;
+    private final long shardRecords;
+    private final int bufferRecords;
+
+    // Every buffer of the pool is in one of the two queues, held by a producer, or being written
+    private final BlockingQueue<ByteBuffer> free = new LinkedBlockingQueue<>();
+    private final BlockingQueue<ByteBuffer> filled = new LinkedBlockingQueue<>();
+    private final AtomicInteger buffers = new AtomicInteger();
+    private final ByteBuffer endOfStream = ByteBuffer.allocate(0);
+    private final Thread writerThread;
+    private volatile IOException failure;
+    private volatile boolean closed;
+
+    // Writer thread state
+    private FileChannel channel;
+    private volatile int shardIndex = -1;
+    private long shardRemaining;
+
+    // Metrics
+    private final AtomicLong recordsWritten = new AtomicLong();
+    private final AtomicLong buffersSubmitted = new AtomicLong();
+    private final AtomicLong stalls = new AtomicLong();
+    private final AtomicLong stallNanos = new AtomicLong();
+    private final AtomicInteger queueHighWater = new AtomicInteger();
+
+    /* ------------------- */
+    /* --- Constructor --- */
+    public TrainingDataWriter(Path directory, String prefix) throws IOException {
+        this(directory, prefix, DEFAULT_SHARD_RECORDS, DEFAULT_BUFFER_RECORDS, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param directory Directory of the shards, created if needed.
+     * @param prefix Start of the shard file names.
+     * @param shardRecords Records per shard before a new one is started.
+     * @param bufferRecords Records per buffer, the unit of a write.
+     * @param queueCapacity Buffers that can wait for the writer thread.
+     */
+    public TrainingDataWriter(Path directory, String prefix, long shardRecords, int bufferRecords,
+            int queueCapacity) throws IOException {
+        if (directory == null || prefix == null || prefix.isEmpty()) {
+            throw new IllegalArgumentException("Directory and prefix cannot be empty.");
+        }
+        if (shardRecords <= 0 || bufferRecords <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Shard size, buffer size and queue capacity must be positive.");
+        }
+        Files.createDirectories(directory);
+        this.directory = directory;
+        this.prefix = prefix;
+        this.shardRecords = shardRecords;
+        this.bufferRecords = bufferRecords;
+        for (int i = 0; i < queueCapacity; i++) {
+            addBuffer();
+        }
+        this.writerThread = new Thread(this::drain, "onitama-training-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+    /* --- --- --- --- --- */
+
+    /**
+     * Creates the producer of one game thread. A producer is not thread-safe.
+     * It adds one buffer to the pool, so that producers holding partly filled
+     * buffers can never starve the others.
+     */
+    public Producer newProducer() {
+        if (closed) {
+            throw new IllegalStateException("Training data writer is closed.");
+        }
+        addBuffer();
+        return new Producer();
+    }
+
+    private void addBuffer() {
+        free.add(ByteBuffer.allocateDirect(bufferRecords * RECORD_SIZE));
+        buffers.incrementAndGet();
+    }
+
+    /* -------------------- */
+    /* --- Buffer queue --- */
+    // Waits for an empty buffer, counting the wait as a stall
+    private ByteBuffer takeFree() {
+        ByteBuffer buffer = free.poll();
+        if (buffer != null) {
+            return buffer;
+        }
+        long start = System.nanoTime();
+        try {
+            buffer = free.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the training data writer.", e);
+        }
+        stalls.incrementAndGet();
+        stallNanos.addAndGet(System.nanoTime() - start);
+        return buffer;
+    }
+
+    // Hands a buffer to the writer thread; never blocks, the pool bounds the queue
+    private void submit(ByteBuffer buffer) {
+        checkFailure();
+        buffer.flip();
+        filled.add(buffer);
+        buffersSubmitted.incrementAndGet();
+        int depth = filled.size();
+        queueHighWater.accumulateAndGet(depth, Math::max);
+    }
+
+    private void checkFailure() {
+        if (failure != null) {
+            throw new IllegalStateException("Training data writer failed.", failure);
+        }
+    }
+    /* --- --- --- --- --- */
+
+    /* --------------------- */
+    /* --- Writer thread --- */
+    private void drain() {
+        try {
+            while (true) {
+                ByteBuffer buffer = filled.take();
+                if (buffer == endOfStream) {
+                    break;
+                }
+                if (failure == null) {
+                    try {
+                        write(buffer);
+                    } catch (IOException e) {
+                        failure = e; // Keep draining so that producers are not stuck
+                    }
+                }
+                buffer.clear();
+                free.add(buffer);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+    }
+
+    // Writes whole records, starting a new shard whenever the current one is full
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (shardRemaining == 0) {
+                openNextShard();
+            }
+            int records = (int) Math.min(shardRemaining, buffer.remaining() / RECORD_SIZE);
+            int limit = buffer.limit();
+            buffer.limit(buffer.position() + records * RECORD_SIZE);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.limit(limit);
+            shardRemaining -= records;
+            recordsWritten.addAndGet(records);
+        }
+    }
+
+    private void openNextShard() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        shardIndex++;
+        channel = FileChannel.open(getShardPath(shardIndex), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(shardIndex);
+        header.flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        shardRemaining = shardRecords;
+    }
+    /* --- --- --- --- --- */
+
+    /**
+     * Waits for every submitted buffer to be written and closes the last shard.
+     * Producers must be flushed first: records still held by a producer are lost.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        filled.add(endOfStream);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while closing the training data writer.", e);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /* --------------- */
+    /* --- Getters --- */
+    public Path getShardPath(int index) {
+        return directory.resolve(String.format("%s-%05d.bin", prefix, index));
+    }
+
+    /**
+     * @return The number of shards started so far.
+     */
+    public int getShardCount() {
+        return shardIndex + 1;
+    }
+
+    public long getRecordsWritten() {
+        return recordsWritten.get();
+    }
+
+    public long getBuffersSubmitted() {
+        return buffersSubmitted.get();
+    }
+
+    /**
+     * @return How many times a producer had to wait for the writer thread.
+     */
+    public long getStalls() {
+        return stalls.get();
+    }
+
+    /**
+     * @return The total time producers spent waiting for the writer thread.
+     */
+    public long getStallMillis() {
+        return stallNanos.get() / 1_000_000L;
+    }
+
+    /**
+     * @return The number of buffers waiting to be written.
+     */
+    public int getQueueDepth() {
+        return filled.size();
+    }
+
+    /**
+     * @return The largest number of buffers that waited to be written at the same time.
+     */
+    public int getQueueHighWater() {
+        return queueHighWater.get();
+    }
+
+    /**
+     * @return The number of buffers in the pool, the most that can wait to be written.
+     */
+    public int getBufferCount() {
+        return buffers.get();
+    }
+    /* --- --- --- --- --- */
+
+    /**
+     * Collects the positions of one game thread. Positions are added as they are
+     * played and encoded when the game ends, with the final result.
+     */
+    public class Producer implements Closeable {
+        private long[] positions = new long[256];
+        private int[] moves = new int[256];
+        private short[] scores = new short[256];
+        private int count;
+        private ByteBuffer buffer;
+
+        private Producer() {
+        }
+
+        /**
+         * Records the position before a move.
+         * @param move The packed move played, {@link Move#NONE} for a pass.
+         * @param score The search score for the player to move, {@link #NO_SCORE} if none.
+         */
+        public void addPosition(GameState gameState, int move, int score) {
+            addPosition(PackedPosition.pack(gameState), move, score);
+        }
+
+        public void addPosition(long packedPosition, int move, int score) {
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count * 2);
+                moves = Arrays.copyOf(moves, count * 2);
+                scores = Arrays.copyOf(scores, count * 2);
+            }
+            positions[count] = packedPosition;
+            moves[count] = move;
+            scores[count] = score == NO_SCORE ? NO_SCORE
+                    : (short) Math.max(-Short.MAX_VALUE, Math.min(Short.MAX_VALUE, score));
+            count++;
+        }
+
+        /**
+         * Encodes the positions of the game with its result.
+         * @param winner The id of the winner, 0 for a draw.
+         */
+        public void endGame(int winner) {
+            for (int i = 0; i < count; i++) {
+                if (buffer == null) {
+                    buffer = takeFree();
+                }
+                int sideToMove = PackedPosition.getSideToMove(positions[i]);
+                byte result = (byte) (winner == 0 ? 0 : (winner == sideToMove ? 1 : -1));
+                buffer.putLong(positions[i]).putInt(moves[i]).putShort(scores[i])
+                      .put(result).put((byte) Math.min(i, 255));
+                if (!buffer.hasRemaining()) {
+                    submit(buffer);
+                    buffer = null;
+                }
+            }
+            count = 0;
+        }
+
+        /**
+         * Drops the positions of the current game.
+         */
+        public void abandonGame() {
+            count = 0;
+        }
+
+        /**
+         * Hands the partly filled buffer to the writer thread.
+         */
+        public void flush() {
+            if (buffer != null && buffer.position() > 0) {
+                submit(buffer);
+                buffer = null;
+            }
+        }
+
+        /**
+         * Flushes the records of finished games and returns the buffer.
+         */
+        @Override
+        public void close() {
+            flush();
+            if (buffer != null) {
+                buffer.clear();
+                free.add(buffer);
+                buffer = null;
+            }
+        }
+    }
+}
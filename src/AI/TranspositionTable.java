@@ -0,0 +1,220 @@
+package AI;
+
+import Entity.Move;
+import Entity.Zobrist;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Fixed-size hash table of search results, keyed by the {@link Zobrist} key of
+ * the position (pieces, side to move and all five cards).
+ * <p>
+ * Entries live in two primitive arrays: the key and a packed data word. The key
+ * slot holds {@code key ^ data}, so an entry torn by two threads writing at the
+ * same time fails the key check instead of returning another position's data.
+ * Probe and store take no lock and allocate nothing, so one table can be shared
+ * by every search thread.
+ * <pre>
+ * data bits  0-15 : best move (0xFFFF = none)
+ * data bits 16-31 : score (signed)
+ * data bits 32-39 : depth
+ * data bits 40-41 : bound
+ * data bits 42-47 : age of the search that stored it
+ * </pre>
+ * A probe returns the data word, 0 on a miss; use the static getters to read it.
+ */
+public class TranspositionTable {
+    public static final int BOUND_NONE = 0;
+    public static final int BOUND_UPPER = 1; // Fail low: score <= stored score
+    public static final int BOUND_LOWER = 2; // Fail high: score >= stored score
+    public static final int BOUND_EXACT = 3;
+
+    public static final int DEFAULT_SIZE_MB = 16;
+    private static final int BUCKET_SIZE = 4;
+    private static final int BYTES_PER_ENTRY = 16;
+
+    private static final int NO_MOVE = 0xFFFF;
+    private static final int AGE_MASK = 0x3F;
+
+    // Opaque access makes every long read and write atomic without full fences
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[] keys;
+    private final long[] data;
+    private final int bucketMask;
+    private volatile int age;
+
+    /* ------------------- */
+    /* --- Constructor --- */
+    public TranspositionTable() {
+        this(DEFAULT_SIZE_MB);
+    }
+
+    /**
+     * @param sizeMB Memory to use, rounded down to a power of two number of entries.
+     */
+    public TranspositionTable(int sizeMB) {
+        if (sizeMB <= 0) {
+            throw new IllegalArgumentException("Transposition table size must be positive.");
+        }
+        long entries = Long.highestOneBit((long) sizeMB * 1024 * 1024 / BYTES_PER_ENTRY);
+        entries = Math.max(BUCKET_SIZE, Math.min(entries, 1L << 30));
+        this.keys = new long[(int) entries];
+        this.data = new long[(int) entries];
+        this.bucketMask = (int) (entries / BUCKET_SIZE) - 1;
+    }
+    /* --- --- --- --- --- */
+
+    /* --------------------- */
+    /* --- Probe & Store --- */
+    /**
+     * @return The data word stored for the key, 0 if the position is not in the table.
+     */
+    public long probe(long key) {
+        int base = bucket(key);
+        for (int i = base; i < base + BUCKET_SIZE; i++) {
+            long d = (long) SLOTS.getOpaque(data, i);
+            if (d != 0 && ((long) SLOTS.getOpaque(keys, i) ^ d) == key) {
+                return d;
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * Stores a search result. An entry for the same position is always replaced
+     * (keeping its move if the new result has none); otherwise the shallowest
+     * entry of the bucket is replaced, entries of older searches first.
+     * @param ply Distance from the root, used to store win scores relative to this position.
+     */
+    public void store(long key, int move, int score, int depth, int bound, int ply) {
+        int base = bucket(key);
+        int currentAge = age;
+        int victim = base;
+        int victimValue = Integer.MAX_VALUE;
+        for (int i = base; i < base + BUCKET_SIZE; i++) {
+            long d = (long) SLOTS.getOpaque(data, i);
+            if (d == 0) {
+                if (victimValue > Integer.MIN_VALUE) {
+                    victim = i;
+                    victimValue = Integer.MIN_VALUE;
+                }
+                continue;
+            }
+            if (((long) SLOTS.getOpaque(keys, i) ^ d) == key) {
+                if (move == Move.NONE) {
+                    move = getMove(d);
+                }
+                victim = i;
+                break;
+            }
+            // Each search of age difference counts as much as 8 plies of depth
+            int value = getDepth(d) - 8 * ((currentAge - getAge(d)) & AGE_MASK);
+            if (value < victimValue) {
+                victim = i;
+                victimValue = value;
+            }
+        }
+
+        long d = (move == Move.NONE ? NO_MOVE : move & 0xFFFF)
+                | ((long) (scoreToTable(score, ply) & 0xFFFF) << 16)
+                | ((long) Math.max(0, Math.min(depth, 255)) << 32)
+                | ((long) bound << 40)
+                | ((long) currentAge << 42);
+        SLOTS.setOpaque(keys, victim, key ^ d);
+        SLOTS.setOpaque(data, victim, d);
+    }
+
+    private int bucket(long key) {
+        return (int) (((key >>> 32) ^ key) & bucketMask) * BUCKET_SIZE;
+    }
+    /* --- --- --- --- --- */
+
+    /* ----------------------- */
+    /* --- Entry accessors --- */
+    public static int getMove(long entry) {
+        int move = (int) (entry & 0xFFFF);
+        return move == NO_MOVE ? Move.NONE : move;
+    }
+
+    /**
+     * @param ply Distance from the root of the position probed.
+     */
+    public static int getScore(long entry, int ply) {
+        return scoreFromTable((short) (entry >>> 16), ply);
+    }
+
+    public static int getDepth(long entry) {
+        return (int) (entry >>> 32) & 0xFF;
+    }
+
+    public static int getBound(long entry) {
+        return (int) (entry >>> 40) & 0x3;
+    }
+
+    static int getAge(long entry) {
+        return (int) (entry >>> 42) & AGE_MASK;
+    }
+
+    // Win scores count plies from the root; the table stores them from the position itself
+    private static int scoreToTable(int score, int ply) {
+        if (score >= SearchEngine.WIN_SCORE - SearchEngine.MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -SearchEngine.WIN_SCORE + SearchEngine.MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int scoreFromTable(int score, int ply) {
+        if (score >= SearchEngine.WIN_SCORE - SearchEngine.MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -SearchEngine.WIN_SCORE + SearchEngine.MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+    /* --- --- --- --- --- */
+
+    /* ------------------- */
+    /* --- Maintenance --- */
+    /**
+     * Marks the start of a new search so that older entries get replaced first.
+     */
+    public void newSearch() {
+        age = (age + 1) & AGE_MASK;
+    }
+
+    /**
+     * Empties the table. Must not run while a search uses it.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(data, 0L);
+        age = 0;
+    }
+
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * @return Per mille of the first 1000 entries used by the current search.
+     */
+    public int getHashFull() {
+        int used = 0;
+        int currentAge = age;
+        int sample = Math.min(1000, data.length);
+        for (int i = 0; i < sample; i++) {
+            long d = (long) SLOTS.getOpaque(data, i);
+            if (d != 0 && getAge(d) == currentAge) {
+                used++;
+            }
+        }
+        return used * 1000 / sample;
+    }
+    /* --- --- --- --- --- */
+}
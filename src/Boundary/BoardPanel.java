@@ -1,11 +1,13 @@
 package Boundary;
 
+import AI.AnalysisResult;
 import Controller.GameController;
 import Entity.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -23,6 +25,10 @@ public class BoardPanel extends JPanel {
 
     private Piece selectedPiece;
     private List<Point> possibleMoves;
+    // Analysis heatmap: score of the best move to each square (null = no overlay)
+    private int[] analysisScores;
+    // Score at which a cell gets the strongest heatmap color
+    private final int ANALYSIS_COLOR_RANGE = 300;
 
     // Animation variables
     private Piece pieceToAnimate; // The piece currently undergoing any animation (move, attack)
@@ -268,6 +274,19 @@ public class BoardPanel extends JPanel {
         this.possibleMoves = (moves != null) ? moves : new ArrayList<>();
     }
 
+    /**
+     * Sets the analysis heatmap. Only repaints when the scores changed, so it can be
+     * called on every refresh of the analysis.
+     * @param scores Score of the best move to each square, indexed by {@link BitBoard#square},
+     *               {@link AnalysisResult#NO_SCORE} for no move; null to hide the heatmap.
+     */
+    public void setAnalysisScores(int[] scores) {
+        if (Arrays.equals(scores, analysisScores))
+            return;
+        this.analysisScores = (scores != null) ? scores.clone() : null;
+        repaint();
+    }
+
     // Methods for staging death animation
     public void setPieceStagedForDeath(Piece piece, Point originalBoardPos) {
         this.pieceStagedForDeath = piece;
@@ -577,6 +596,18 @@ public class BoardPanel extends JPanel {
                     dynamicCellSize, dynamicCellSize);
         }
 
+        // Analysis heatmap: green for good moves, red for bad ones
+        if (analysisScores != null) {
+            for (int sq = 0; sq < analysisScores.length; sq++) {
+                if (analysisScores[sq] == AnalysisResult.NO_SCORE)
+                    continue;
+                g2d.setColor(heatmapColor(analysisScores[sq]));
+                g2d.fillRect(dynamicOffsetX + (BitBoard.col(sq) + 1) * dynamicCellSize,
+                        dynamicOffsetY + (BitBoard.row(sq) + 1) * dynamicCellSize,
+                        dynamicCellSize, dynamicCellSize);
+            }
+        }
+
         // Draw pieces from the board (static pieces or those in idle animation)
         for (int row = 0; row < currentBoard.getRows(); row++) {
             for (int col = 0; col < currentBoard.getColumns(); col++) {
@@ -665,6 +696,30 @@ public class BoardPanel extends JPanel {
                 }
             }
         }
+
+        // Analysis scores, over the pieces so they stay readable
+        if (analysisScores != null) {
+            g2d.setFont(new Font("Arial", Font.BOLD, Math.max(9, dynamicCellSize / 6)));
+            FontMetrics metrics = g2d.getFontMetrics();
+            for (int sq = 0; sq < analysisScores.length; sq++) {
+                if (analysisScores[sq] == AnalysisResult.NO_SCORE)
+                    continue;
+                String text = AnalysisResult.formatScore(analysisScores[sq]);
+                int x = dynamicOffsetX + (BitBoard.col(sq) + 1) * dynamicCellSize + 3;
+                int y = dynamicOffsetY + (BitBoard.row(sq) + 1) * dynamicCellSize + 2;
+                g2d.setColor(new Color(0, 0, 0, 160));
+                g2d.fillRect(x, y, metrics.stringWidth(text) + 4, metrics.getHeight());
+                g2d.setColor(Color.WHITE);
+                g2d.drawString(text, x + 2, y + metrics.getAscent());
+            }
+        }
+    }
+
+    // Translucent green or red, stronger as the score moves away from even
+    private Color heatmapColor(int score) {
+        double strength = Math.min(1.0, Math.abs(score) / (double) ANALYSIS_COLOR_RANGE);
+        int alpha = 50 + (int) (110 * strength);
+        return (score >= 0) ? new Color(0, 200, 0, alpha) : new Color(220, 0, 0, alpha);
     }
 
     private void drawPiece(Graphics2D g2d, Piece piece, int centerX, int centerY, Map<String, List<Image>> animMap) {
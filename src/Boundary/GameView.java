@@ -1,5 +1,7 @@
 package Boundary;
 
+import AI.AnalysisResult;
+import AI.SearchResult;
 import Controller.GameController;
 import Entity.*;
 import java.awt.*;
@@ -15,6 +17,11 @@ public class GameView extends JFrame {
     private NeutralCardPanel neutralCardPanel;
     private JLabel statusLabel;
     private JButton restartButton;
+    private JToggleButton analysisButton;
+    private JLabel analysisLabel;
+    // Polls the background analysis; the board and cards only repaint when the scores change
+    private Timer analysisTimer;
+    private final int ANALYSIS_REFRESH_RATE = 250;
 
     /* Constructors */
     public GameView(GameController controller) {
@@ -39,9 +46,20 @@ public class GameView extends JFrame {
             controller.resetGame();
         });
         
+        analysisLabel = new JLabel("", SwingConstants.RIGHT);
+        analysisLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+        analysisButton = new JToggleButton("Analysis");
+        analysisButton.addActionListener(e -> setAnalysisEnabled(analysisButton.isSelected()));
+        analysisTimer = new Timer(ANALYSIS_REFRESH_RATE, e -> refreshAnalysis());
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
+        buttonPanel.add(analysisLabel);
+        buttonPanel.add(analysisButton);
+        buttonPanel.add(restartButton);
+
         JPanel southPanel = new JPanel(new BorderLayout());
         southPanel.add(statusLabel, BorderLayout.CENTER);
-        southPanel.add(restartButton, BorderLayout.EAST);
+        southPanel.add(buttonPanel, BorderLayout.EAST);
         add(southPanel, BorderLayout.SOUTH);
 
         JPanel westPanel = new JPanel();
@@ -172,11 +190,59 @@ public class GameView extends JFrame {
         statusLabel.setText(message);
     }
 
+    // Progress of the AI of a player while it thinks: depth, nodes and the start of its best line
+    public void showSearchProgress(int playerId, SearchResult progress) {
+        StringBuilder line = new StringBuilder();
+        int[] pv = progress.getPrincipalVariation();
+        for (int i = 0; i < Math.min(3, pv.length); i++) {
+            line.append(i == 0 ? "" : ", ").append(Move.toString(pv[i]));
+        }
+        statusLabel.setText("Player " + playerId + " is thinking... depth " + progress.getDepth()
+                + ", " + progress.getNodes() + " nodes, best line: " + line);
+    }
+
     public void showGameOver(String message) {
         JOptionPane.showMessageDialog(this, "Game Over: " + message, "Game Over", JOptionPane.INFORMATION_MESSAGE);
         statusLabel.setText("Game Over: " + message + " Click Restart to play again.");
     }
 
+    /* Analysis Mode */
+    // Turns the heatmap of the background analysis on or off
+    public void setAnalysisEnabled(boolean enabled) {
+        analysisButton.setSelected(enabled);
+        controller.setAnalysisEnabled(enabled);
+        if (enabled) {
+            analysisTimer.start();
+        } else {
+            analysisTimer.stop();
+        }
+        refreshAnalysis();
+    }
+
+    // Shows the latest analysis snapshot: on the board the best score of each destination
+    // (of the selected piece and card, if any), on the cards the best score of each card
+    private void refreshAnalysis() {
+        AnalysisResult analysis = controller.getAnalysis();
+        if (analysis == null) {
+            boardPanel.setAnalysisScores(null);
+            playerCardsPanelP1.setCardScores(null);
+            playerCardsPanelP2.setCardScores(null);
+            analysisLabel.setText(controller.isAnalysisEnabled() && !controller.getGameState().isGameOver()
+                    ? "Analysing..." : "");
+            return;
+        }
+        Piece piece = controller.getSelectedPiece();
+        int fromSquare = (piece != null) ? BitBoard.square(piece.getPosX(), piece.getPosY()) : -1;
+        int cardIndex = Deck.indexOf(controller.getSelectedCard());
+        boardPanel.setAnalysisScores(analysis.getBestScoreByTarget(fromSquare, cardIndex));
+        // Only the cards of the player to move have scores
+        int[] cardScores = analysis.getBestScoreByCard();
+        playerCardsPanelP1.setCardScores(cardScores);
+        playerCardsPanelP2.setCardScores(cardScores);
+        analysisLabel.setText("Depth " + analysis.getDepth() + ", best "
+                + Move.toString(analysis.getMove(0)) + " " + AnalysisResult.formatScore(analysis.getScore(0)));
+    }
+
     /* Animation Triggers */
     public void animateMove(Piece piece, Point fromPos, Point toPos, boolean isCapture, Runnable onAnimationComplete) {
         boardPanel.animateMove(piece, fromPos, toPos, isCapture, onAnimationComplete);
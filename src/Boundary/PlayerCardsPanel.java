@@ -1,9 +1,12 @@
 package Boundary;
 
+import AI.AnalysisResult;
 import Controller.GameController;
+import Entity.Deck;
 import Entity.MoveCard;
 import java.awt.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List; // Import List
 import javax.swing.*;
 
@@ -16,6 +19,8 @@ public class PlayerCardsPanel extends JPanel {
     private MoveCard selectedCard = null;
     // Use List interface for flexibility, initialized with ArrayList
     private ArrayList<CardComponent> cardComponents; 
+    // Analysis: score of the best move with each card, indexed by deck index (null = none shown)
+    private int[] cardScores;
 
     /* ------------------- */
     /* --- Constructor --- */
@@ -61,6 +66,17 @@ public class PlayerCardsPanel extends JPanel {
             cc.repaint();
         }
     }
+
+    /**
+     * Shows the analysis score of each card over it. Only repaints when the scores changed.
+     * @param scores Best score per card, indexed by deck index, {@link AnalysisResult#NO_SCORE}
+     *               for none; null to hide the scores.
+     */
+    public void setCardScores(int[] scores) {
+        if (Arrays.equals(scores, cardScores)) return;
+        this.cardScores = (scores != null) ? scores.clone() : null;
+        repaint();
+    }
     /* --- --- --- --- --- */
 
 
@@ -112,5 +128,32 @@ public class PlayerCardsPanel extends JPanel {
         revalidate();
         repaint();
     }
+
+    // Draws the analysis score badges on top of the cards
+    @Override
+    protected void paintChildren(Graphics g) {
+        super.paintChildren(g);
+        if (cardScores == null) return;
+
+        Graphics2D g2d = (Graphics2D) g;
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setFont(new Font("Arial", Font.BOLD, 13));
+        FontMetrics metrics = g2d.getFontMetrics();
+        for (CardComponent cc : cardComponents) {
+            int index = Deck.indexOf(cc.getCard());
+            if (index < 0 || cardScores[index] == AnalysisResult.NO_SCORE) continue;
+
+            String text = AnalysisResult.formatScore(cardScores[index]);
+            int width = metrics.stringWidth(text) + 8;
+            int height = metrics.getHeight() + 2;
+            Rectangle bounds = cc.getBounds();
+            int x = bounds.x + bounds.width - width - 4;
+            int y = bounds.y + bounds.height - height - 4;
+            g2d.setColor(cardScores[index] >= 0 ? new Color(0, 130, 0, 200) : new Color(170, 0, 0, 200));
+            g2d.fillRoundRect(x, y, width, height, 8, 8);
+            g2d.setColor(Color.WHITE);
+            g2d.drawString(text, x + 4, y + 1 + metrics.getAscent());
+        }
+    }
     /* --- --- --- --- --- */
 }
@@ -1,8 +1,21 @@
 package Controller;
 
+import AI.AIPlayer;
+import AI.AnalysisResult;
+import AI.Analyzer;
 import Boundary.GameView;
 import Entity.*;
 import java.awt.Point;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.SwingUtilities;
 
 public class GameController {
     private GameState gameState;
@@ -11,6 +24,31 @@ public class GameController {
     private Piece selectedPiece = null;
     private MoveCard selectedCard = null;
 
+    // Computer opponents, indexed by player id (null = human)
+    private final AIPlayer[] aiPlayers = new AIPlayer[3];
+    // Runs the AI searches, and every other call to the AI players, off the Swing thread
+    private final ExecutorService aiExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "onitama-ai");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Incremented on reset: AI results of an earlier game are dropped
+    private final AtomicInteger aiGeneration = new AtomicInteger();
+    // The last AI move search submitted, and the player running it
+    private Future<?> aiTask;
+    private AIPlayer aiTaskPlayer;
+    // Stops the search dropped by a reset until it returns, while aiExecutor is busy with it
+    private final ExecutorService aiCanceller = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "onitama-ai-cancel");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Done once the search dropped by the last reset has returned
+    private volatile Future<?> aiCancel = CompletableFuture.completedFuture(null);
+    // Analysis mode: scores every move of the current position in the background (created on first use)
+    private Analyzer analyzer;
+    private boolean analysisEnabled;
+
     public GameController() {
         this.gameState = new GameState();
     }
@@ -37,6 +75,51 @@ public class GameController {
         }
     }
 
+    /**
+     * Lets the computer play for a player.
+     * @param aiPlayer The AI to use, null to give the player back to a human.
+     */
+    public void setAIPlayer(int playerId, AIPlayer aiPlayer) {
+        if (playerId != 1 && playerId != 2) {
+            throw new IllegalArgumentException("Player id must be 1 or 2.");
+        }
+        this.aiPlayers[playerId] = aiPlayer;
+    }
+
+    public AIPlayer getAIPlayer(int playerId) {
+        return (playerId == 1 || playerId == 2) ? aiPlayers[playerId] : null;
+    }
+
+    public boolean isAITurn() {
+        return getAIPlayer(gameState.getCurrentPlayerId()) != null;
+    }
+
+    /**
+     * Turns analysis mode on or off. While on, every position reached is analysed in
+     * the background; the view polls the scores with {@link #getAnalysis}.
+     */
+    public void setAnalysisEnabled(boolean analysisEnabled) {
+        this.analysisEnabled = analysisEnabled;
+        refreshAnalysis();
+    }
+
+    public boolean isAnalysisEnabled() {
+        return analysisEnabled;
+    }
+
+    /**
+     * @return The deepest analysis completed so far for the current position, null
+     *         if analysis mode is off or no depth is complete yet.
+     */
+    public AnalysisResult getAnalysis() {
+        AnalysisResult analysis = (analyzer != null && analysisEnabled) ? analyzer.getSnapshot() : null;
+        // The snapshot may still be the one of the previous position
+        if (analysis == null || analysis.getKey() != gameState.getZobristKey()) {
+            return null;
+        }
+        return analysis;
+    }
+
     public GameState getGameState() {
         return gameState;
     }
@@ -51,13 +134,17 @@ public class GameController {
 
     public void startGame() {
         gameState.initializeGameSetup(); 
+        refreshAnalysis();
         if (gameView != null) {
             gameView.updateView(); 
             gameView.showMessage("Game started. Player " + gameState.getCurrentPlayerId() + "'s turn.");
         }
+        scheduleAIMove();
+        startPondering();
     }
 
     public void resetGame() {
+        cancelAI();
         gameState.resetGame(); 
         selectedPiece = null;
         selectedCard = null;
@@ -69,6 +156,7 @@ public class GameController {
     public void handleCellClick(int row, int col) {
         if (gameState.isGameOver()) return;
         if (gameView == null) return; 
+        if (isAITurn()) return;
 
         Player currentPlayer = gameState.getCurrentPlayer();
         Point clickedPoint = new Point(row, col);
@@ -102,60 +190,9 @@ public class GameController {
                 return;
             }
 
-            final Piece pieceToMove = this.selectedPiece; 
-            final MoveCard cardToPlay = this.selectedCard; 
-            final Point startPosition = new Point(pieceToMove.getPosX(), pieceToMove.getPosY()); 
-            final Point targetPosition = clickedPoint; 
-
-            Piece victimPiece = gameState.getBoard().getPieceAt(targetPosition.x, targetPosition.y);
-            final boolean isCapture = (victimPiece != null && victimPiece.getPlayerId() != currentPlayer.getId());
-            final Piece capturedPieceForAnimation = isCapture ? victimPiece : null; 
-            final Point victimOriginalPos = isCapture && victimPiece != null ? new Point(victimPiece.getPosX(), victimPiece.getPosY()) : null;
-
-
-            boolean moveSuccessful = gameState.playTurn(pieceToMove, cardToPlay, targetPosition);
+            boolean moveSuccessful = executeMove(this.selectedPiece, this.selectedCard, clickedPoint);
 
-            if (moveSuccessful) {
-                final Piece movedPieceForAnimation = pieceToMove; 
-                
-                if (gameView != null) {
-                    gameView.updateView(); 
-                    if (isCapture && capturedPieceForAnimation != null && victimOriginalPos != null) {
-                        // Tell BoardPanel to keep the victim visually present at its original spot
-                        gameView.stagePieceForDeathAnimation(capturedPieceForAnimation, victimOriginalPos);
-                    }
-                }
-                
-                this.selectedPiece = null;
-                this.selectedCard = null;
-                if (gameView != null) {
-                    gameView.clearHighlightsAndPossibleMoves(); 
-                }
-
-                Runnable finalMessageUpdates = () -> {
-                    if(gameView != null) {
-                        if (gameState.isGameOver()) {
-                            gameView.showGameOver(gameState.getGameStatus());
-                        } else {
-                            gameView.showMessage("Player " + gameState.getCurrentPlayerId() + "'s turn.");
-                        }
-                    }
-                };
-
-                Runnable afterDeathAnimation = finalMessageUpdates; 
-
-                Runnable afterMoveAndAttackAnimation = () -> {
-                    if (isCapture && capturedPieceForAnimation != null) {
-                        if(gameView != null) gameView.clearStagedDeathPiece(); // Stop drawing it as idle
-                        gameView.animateDeath(capturedPieceForAnimation, afterDeathAnimation);
-                    } else {
-                        finalMessageUpdates.run(); 
-                    }
-                };
-                
-                gameView.animateMove(movedPieceForAnimation, startPosition, targetPosition, isCapture, afterMoveAndAttackAnimation);
-
-            } else { 
+            if (!moveSuccessful) { 
                 gameView.showMessage("Invalid move. Try again.");
                  gameView.clearPossibleMoves();
                  if (this.selectedPiece != null && this.selectedCard != null) {
@@ -168,6 +205,7 @@ public class GameController {
     public void handleCardSelection(MoveCard card) {
         if (gameState.isGameOver() || card == null) return;
         if (gameView == null) return;
+        if (isAITurn()) return;
 
         Player currentPlayer = gameState.getCurrentPlayer();
         if (currentPlayer == null || gameState.getCurrentPlayer() == null ) return;
@@ -184,4 +222,194 @@ public class GameController {
             gameView.showMessage("This card is not in your hand or it's not your turn to select it.");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Plays a validated turn and animates it. Shared by human clicks and AI moves.
+     * @return true if the move was legal and played.
+     */
+    private boolean executeMove(Piece pieceToMove, MoveCard cardToPlay, Point targetPosition) {
+        final int playerId = gameState.getCurrentPlayerId();
+        final Point startPosition = new Point(pieceToMove.getPosX(), pieceToMove.getPosY()); 
+
+        Piece victimPiece = gameState.getBoard().getPieceAt(targetPosition.x, targetPosition.y);
+        final boolean isCapture = (victimPiece != null && victimPiece.getPlayerId() != playerId);
+        final Piece capturedPieceForAnimation = isCapture ? victimPiece : null; 
+        final Point victimOriginalPos = isCapture ? new Point(victimPiece.getPosX(), victimPiece.getPosY()) : null;
+
+        boolean moveSuccessful = gameState.playTurn(pieceToMove, cardToPlay, targetPosition);
+        if (!moveSuccessful) {
+            return false;
+        }
+        refreshAnalysis();
+
+        if (gameView != null) {
+            gameView.updateView(); 
+            if (isCapture) {
+                // Tell BoardPanel to keep the victim visually present at its original spot
+                gameView.stagePieceForDeathAnimation(capturedPieceForAnimation, victimOriginalPos);
+            }
+        }
+        
+        this.selectedPiece = null;
+        this.selectedCard = null;
+        if (gameView == null) {
+            return true;
+        }
+        gameView.clearHighlightsAndPossibleMoves(); 
+
+        Runnable finalMessageUpdates = () -> {
+            if (gameState.isGameOver()) {
+                gameView.showGameOver(gameState.getGameStatus());
+            } else {
+                gameView.showMessage("Player " + gameState.getCurrentPlayerId() + "'s turn.");
+                scheduleAIMove();
+                startPondering();
+            }
+        };
+
+        Runnable afterMoveAndAttackAnimation = () -> {
+            if (isCapture) {
+                gameView.clearStagedDeathPiece(); // Stop drawing it as idle
+                gameView.animateDeath(capturedPieceForAnimation, finalMessageUpdates);
+            } else {
+                finalMessageUpdates.run(); 
+            }
+        };
+        
+        gameView.animateMove(pieceToMove, startPosition, targetPosition, isCapture, afterMoveAndAttackAnimation);
+        return true;
+    }
+
+    // Restarts the analysis on the current position, or stops it when off or the game is over
+    private void refreshAnalysis() {
+        if (!analysisEnabled || gameState.isGameOver()) {
+            if (analyzer != null) {
+                analyzer.stop();
+            }
+            return;
+        }
+        if (analyzer == null) {
+            analyzer = new Analyzer();
+        }
+        analyzer.analyze(gameState);
+    }
+
+    /* ---------------- */
+    /* --- AI turns --- */
+    // Searches the AI move on the AI thread; the result comes back to the Swing thread,
+    // which keeps painting and animating meanwhile
+    private void scheduleAIMove() {
+        if (gameView == null || !isAITurn() || gameState.isGameOver()) return;
+        final int playerId = gameState.getCurrentPlayerId();
+        final AIPlayer aiPlayer = aiPlayers[playerId];
+        final int generation = aiGeneration.get();
+        final GameState snapshot = new GameState(gameState);
+
+        gameView.showMessage("Player " + playerId + " is thinking...");
+        aiTaskPlayer = aiPlayer;
+        aiTask = aiExecutor.submit(() -> {
+            if (generation != aiGeneration.get()) return; // Reset while queued
+            awaitCancel();
+            aiPlayer.setSearchListener(progress -> SwingUtilities.invokeLater(() -> {
+                if (generation == aiGeneration.get()) {
+                    gameView.showSearchProgress(playerId, progress);
+                }
+            }));
+            try {
+                int move = aiPlayer.chooseMove(snapshot);
+                SwingUtilities.invokeLater(() -> applyAIMove(generation, move));
+            } catch (RuntimeException e) {
+                SwingUtilities.invokeLater(() -> gameView.showMessage("AI for Player " + playerId + " failed: " + e.getMessage()));
+            }
+        });
+    }
+
+    // While a human is to move, lets the AI waiting for its turn think in the background.
+    // Its next chooseMove stops the ponder search, reusing it if the human played the predicted move.
+    private void startPondering() {
+        if (gameState.isGameOver() || isAITurn()) return;
+        final AIPlayer waiting = getAIPlayer(BitBoard.opponent(gameState.getCurrentPlayerId()));
+        if (waiting != null && waiting.isPonder()) {
+            final int generation = aiGeneration.get();
+            final GameState snapshot = new GameState(gameState);
+            aiExecutor.execute(() -> {
+                if (generation == aiGeneration.get()) {
+                    awaitCancel();
+                    waiting.startPondering(snapshot);
+                }
+            });
+        }
+    }
+
+    // Drops the AI work of the current game: running searches return at once and their results are ignored
+    private void cancelAI() {
+        aiGeneration.incrementAndGet();
+        for (AIPlayer aiPlayer : aiPlayers) {
+            if (aiPlayer != null) {
+                aiPlayer.stop();
+                aiExecutor.execute(aiPlayer::stopPondering);
+            }
+        }
+        Future<?> running = aiTask;
+        AIPlayer runningPlayer = aiTaskPlayer;
+        aiTask = null;
+        aiTaskPlayer = null;
+        if (running != null && !running.isDone()) {
+            aiCancel = aiCanceller.submit(() -> stopUntilDone(runningPlayer, running));
+        }
+    }
+
+    // A task that had passed its generation check but not yet started searching
+    // when stopped resets the stop flag, so keep asking until it returns
+    private static void stopUntilDone(AIPlayer aiPlayer, Future<?> running) {
+        while (true) {
+            aiPlayer.stop();
+            try {
+                running.get(1, TimeUnit.MILLISECONDS);
+                return;
+            } catch (TimeoutException e) {
+                // Not finished yet, stop it again
+            } catch (ExecutionException | CancellationException e) {
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Called on the AI thread before searching: the stops sent to a dropped
+    // search must not reach the next one
+    private void awaitCancel() {
+        try {
+            aiCancel.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | CancellationException e) {
+            // stopUntilDone does not fail
+        }
+    }
+
+    // Plays the AI move found on the AI thread, on the Swing thread
+    private void applyAIMove(int generation, int move) {
+        if (generation != aiGeneration.get() || gameState.isGameOver() || !isAITurn()) return;
+
+        if (move == Move.NONE) {
+            gameView.showMessage("No possible moves for Player " + gameState.getCurrentPlayerId() + ". Skipping turn.");
+            gameState.switchPlayerTurn();
+            refreshAnalysis();
+            gameView.updateView();
+            scheduleAIMove();
+            startPondering();
+            return;
+        }
+
+        Piece piece = gameState.getBoard().getPieceAt(BitBoard.row(Move.getFrom(move)), BitBoard.col(Move.getFrom(move)));
+        MoveCard card = Deck.getCard(Move.getCardIndex(move));
+        Point target = new Point(BitBoard.row(Move.getTo(move)), BitBoard.col(Move.getTo(move)));
+        if (!executeMove(piece, card, target)) {
+            gameView.showMessage("AI for Player " + gameState.getCurrentPlayerId() + " failed to play " + Move.toString(move) + ".");
+        }
+    }
+    /* --- --- --- --- --- */
+}
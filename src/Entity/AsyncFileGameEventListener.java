@@ -0,0 +1,235 @@
+package Entity;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes game events to a text file from a background thread.
+ * Game threads only store each event as two longs (time and packed payload)
+ * in a ring buffer; formatting and file I/O happen on the writer thread.
+ * When the ring is full, game threads wait for the writer to catch up so that
+ * no event is lost.
+ */
+public class AsyncFileGameEventListener implements GameEventListener, Closeable {
+    private static final int GAME_STARTED = 0;
+    private static final int GAME_RESET = 1;
+    private static final int TURN_PLAYED = 2;
+    private static final int CAPTURE = 3;
+    private static final int CARD_EXCHANGE = 4;
+    private static final int TURN_SWITCHED = 5;
+    private static final int GAME_OVER = 6;
+    private static final int INVALID_MOVE = 7;
+
+    // Marker for a game started with cards outside the deck
+    private static final int UNKNOWN_DISTRIBUTION = 0x1FFFF;
+
+    private final Object lock = new Object();
+    private final long[] ring; // Two slots per event: time and payload
+    private final int mask;
+    private long head; // Next event to write, guarded by lock
+    private long tail; // Next free slot, guarded by lock
+    private boolean closed; // Guarded by lock
+
+    private final BufferedWriter writer;
+    private final Thread writerThread;
+
+    /* ------------------- */
+    /* --- Constructor --- */
+    /**
+     * @param file The file to write, replaced if it exists.
+     * @param capacity Number of events the ring buffer can hold, rounded up to a power of two.
+     */
+    public AsyncFileGameEventListener(Path file, int capacity) throws IOException {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.ring = new long[size * 2];
+        this.mask = size - 1;
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        this.writerThread = new Thread(this::writeLoop, "onitama-event-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    public AsyncFileGameEventListener(Path file) throws IOException {
+        this(file, 1 << 14);
+    }
+    /* --- --- --- --- --- */
+
+    /* -------------- */
+    /* --- Events --- */
+    @Override
+    public void onGameStarted(GameState gameState) {
+        int distribution = UNKNOWN_DISTRIBUTION;
+        if (Deck.indexOf(gameState.getNeutralCardMove()) >= 0
+                && gameState.getPlayer1().getMoveCards().size() == 2
+                && gameState.getPlayer2().getMoveCards().size() == 2) {
+            distribution = CardDistribution.indexOf(gameState);
+        }
+        publish(GAME_STARTED, gameState.getCurrentPlayerId(), distribution, 0, 0);
+    }
+
+    @Override
+    public void onGameReset() {
+        publish(GAME_RESET, 0, 0, 0, 0);
+    }
+
+    @Override
+    public void onTurnPlayed(int playerId, int from, int to, int cardIndex) {
+        publish(TURN_PLAYED, playerId, from, to, cardIndex + 1);
+    }
+
+    @Override
+    public void onCapture(int playerId, int square, boolean master) {
+        publish(CAPTURE, playerId, square, master ? 1 : 0, 0);
+    }
+
+    @Override
+    public void onCardExchange(int playerId, int cardPlayed, int cardReceived) {
+        publish(CARD_EXCHANGE, playerId, cardPlayed + 1, cardReceived + 1, 0);
+    }
+
+    @Override
+    public void onTurnSwitched(int playerId) {
+        publish(TURN_SWITCHED, playerId, 0, 0, 0);
+    }
+
+    @Override
+    public void onGameOver(int winnerId, boolean byStone) {
+        publish(GAME_OVER, winnerId, byStone ? 1 : 0, 0, 0);
+    }
+
+    @Override
+    public void onInvalidMove(int playerId, InvalidMoveReason reason) {
+        publish(INVALID_MOVE, playerId, reason.ordinal(), 0, 0);
+    }
+    /* --- --- --- --- --- */
+
+    /* --------------- */
+    /* --- Buffer --- */
+    // Payload layout: type (4 bits) | player (4 bits) | a (20 bits) | b (16 bits) | c (16 bits).
+    // Card indices are stored plus one so that cards outside the deck (-1) fit.
+    private void publish(int type, int playerId, int a, int b, int c) {
+        long payload = type | (playerId << 4) | ((long) (a & 0xFFFFF) << 8)
+                | ((long) (b & 0xFFFF) << 28) | ((long) (c & 0xFFFF) << 44);
+        long time = System.currentTimeMillis();
+        synchronized (lock) {
+            while (tail - head > mask && !closed) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return; // Drop the event rather than block an interrupted thread
+                }
+            }
+            if (closed) {
+                return;
+            }
+            int slot = (int) (tail & mask) << 1;
+            ring[slot] = time;
+            ring[slot + 1] = payload;
+            tail++;
+            lock.notifyAll();
+        }
+    }
+
+    private void writeLoop() {
+        long[] batch = new long[ring.length];
+        while (true) {
+            int count;
+            boolean done;
+            synchronized (lock) {
+                while (head == tail && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                count = (int) (tail - head);
+                for (int i = 0; i < count; i++) {
+                    int slot = (int) ((head + i) & mask) << 1;
+                    batch[i << 1] = ring[slot];
+                    batch[(i << 1) + 1] = ring[slot + 1];
+                }
+                head = tail;
+                done = closed;
+                lock.notifyAll();
+            }
+            try {
+                for (int i = 0; i < count; i++) {
+                    writer.write(format(batch[i << 1], batch[(i << 1) + 1]));
+                    writer.newLine();
+                }
+                writer.flush();
+            } catch (IOException e) {
+                System.err.println("AsyncFileGameEventListener: Cannot write events: " + e.getMessage());
+            }
+            if (done) {
+                return;
+            }
+        }
+    }
+
+    private static String format(long time, long payload) {
+        int type = (int) (payload & 0xF);
+        int playerId = (int) ((payload >>> 4) & 0xF);
+        int a = (int) ((payload >>> 8) & 0xFFFFF);
+        int b = (int) ((payload >>> 28) & 0xFFFF);
+        int c = (int) ((payload >>> 44) & 0xFFFF);
+        String prefix = time + " ";
+        switch (type) {
+            case GAME_STARTED:
+                if (a == UNKNOWN_DISTRIBUTION) {
+                    return prefix + "start player=" + playerId;
+                }
+                return prefix + "start player=" + playerId
+                        + " p1=" + cardName(CardDistribution.getPlayer1Card(a, 0)) + "," + cardName(CardDistribution.getPlayer1Card(a, 1))
+                        + " p2=" + cardName(CardDistribution.getPlayer2Card(a, 0)) + "," + cardName(CardDistribution.getPlayer2Card(a, 1))
+                        + " neutral=" + cardName(CardDistribution.getNeutralCard(a));
+            case GAME_RESET:
+                return prefix + "reset";
+            case TURN_PLAYED:
+                return prefix + "move player=" + playerId + " from=" + ConsoleGameEventListener.square(a)
+                        + " to=" + ConsoleGameEventListener.square(b) + " card=" + cardName(c - 1);
+            case CAPTURE:
+                return prefix + "capture player=" + playerId + " at=" + ConsoleGameEventListener.square(a)
+                        + (b == 1 ? " master" : " pawn");
+            case CARD_EXCHANGE:
+                return prefix + "exchange player=" + playerId + " played=" + cardName(a - 1)
+                        + " received=" + cardName(b - 1);
+            case TURN_SWITCHED:
+                return prefix + "turn player=" + playerId;
+            case GAME_OVER:
+                return prefix + "gameover winner=" + playerId + (a == 1 ? " stone" : " stream");
+            case INVALID_MOVE:
+                return prefix + "invalid player=" + playerId + " reason=" + InvalidMoveReason.values()[a];
+            default:
+                return prefix + "unknown " + payload;
+        }
+    }
+
+    private static String cardName(int cardIndex) {
+        return ConsoleGameEventListener.cardName(cardIndex);
+    }
+    /* --- --- --- --- --- */
+
+    /**
+     * Writes the pending events, then stops the writer thread and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer.close();
+    }
+}
@@ -0,0 +1,313 @@
+package Entity;
+
+/**
+ * Bitboard representation of the standard 5x5 Onitama board.
+ * Each side owns one 25-bit mask for its pawns and one for its master.
+ * Square index is {@code row * 5 + col}, i.e. the same (row, col) convention
+ * as {@link Board} and {@link java.awt.Point} positions (x = row, y = col).
+ */
+public class BitBoard {
+    public static final int SIZE = 5;
+    public static final int SQUARES = SIZE * SIZE;
+    public static final int FULL_MASK = (1 << SQUARES) - 1;
+
+    // Captured piece codes returned by movePiece
+    public static final int NO_CAPTURE = 0;
+    public static final int PAWN_CAPTURED = 1;
+    public static final int MASTER_CAPTURED = 2;
+
+    // Temple arch square of each player, indexed by player id (slot 0 unused)
+    private static final int[] TEMPLE_ARCH = { -1, square(2, 0), square(2, SIZE - 1) };
+
+    // Masks indexed by player id (slot 0 unused)
+    private final int[] pawns = new int[3];
+    private final int[] masters = new int[3];
+
+    /* -------------------- */
+    /* --- Constructors --- */
+    // Empty board
+    public BitBoard() {
+    }
+
+    public BitBoard(Board board) {
+        load(board);
+    }
+
+    // Copy constructor
+    public BitBoard(BitBoard other) {
+        copyFrom(other);
+    }
+    /* --- --- --- --- --- */
+
+    /* ------------------ */
+    /* --- Conversion --- */
+    /**
+     * Replaces the content of this bitboard with the pieces of the given board.
+     * @param board A 5x5 board.
+     */
+    public void load(Board board) {
+        if (board == null) {
+            throw new IllegalArgumentException("Board cannot be null.");
+        }
+        if (board.getRows() != SIZE || board.getColumns() != SIZE) {
+            throw new IllegalArgumentException("BitBoard only supports a " + SIZE + "x" + SIZE + " board.");
+        }
+        clear();
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                Piece p = board.getPieceAt(r, c);
+                if (p != null) {
+                    setPiece(p.getPlayerId(), p.isMaster(), square(r, c));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return A new {@link Board} holding fresh {@link Piece} objects for every bit set.
+     */
+    public Board toBoard() {
+        Board board = new Board();
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                board.setPieceAt(r, c, null);
+            }
+        }
+        for (int playerId = 1; playerId <= 2; playerId++) {
+            for (int m = pawns[playerId]; m != 0; m &= m - 1) {
+                int sq = Integer.numberOfTrailingZeros(m);
+                board.setPieceAt(row(sq), col(sq), new Pawn(playerId, row(sq), col(sq)));
+            }
+            if (masters[playerId] != 0) {
+                int sq = Integer.numberOfTrailingZeros(masters[playerId]);
+                board.setPieceAt(row(sq), col(sq), new Master(playerId, row(sq), col(sq)));
+            }
+        }
+        return board;
+    }
+
+    public void copyFrom(BitBoard other) {
+        this.pawns[1] = other.pawns[1];
+        this.pawns[2] = other.pawns[2];
+        this.masters[1] = other.masters[1];
+        this.masters[2] = other.masters[2];
+    }
+
+    public void clear() {
+        pawns[1] = pawns[2] = 0;
+        masters[1] = masters[2] = 0;
+    }
+    /* --- --- --- --- --- */
+
+    /* --------------- */
+    /* --- Squares --- */
+    public static int square(int row, int col) {
+        return row * SIZE + col;
+    }
+
+    public static int row(int square) {
+        return square / SIZE;
+    }
+
+    public static int col(int square) {
+        return square % SIZE;
+    }
+
+    public static int bit(int row, int col) {
+        return 1 << square(row, col);
+    }
+
+    public static int opponent(int playerId) {
+        return 3 - playerId;
+    }
+
+    /**
+     * @return The square of the temple arch the given player starts on.
+     */
+    public static int getTempleArch(int playerId) {
+        return TEMPLE_ARCH[playerId];
+    }
+    /* --- --- --- --- --- */
+
+    /* --------------- */
+    /* --- Getters --- */
+    public int getPawns(int playerId) {
+        return pawns[playerId];
+    }
+
+    public int getMaster(int playerId) {
+        return masters[playerId];
+    }
+
+    // Square of the player's master, or -1 if it has been captured
+    public int getMasterSquare(int playerId) {
+        int m = masters[playerId];
+        return m == 0 ? -1 : Integer.numberOfTrailingZeros(m);
+    }
+
+    public int getPieces(int playerId) {
+        return pawns[playerId] | masters[playerId];
+    }
+
+    public int getOccupied() {
+        return pawns[1] | pawns[2] | masters[1] | masters[2];
+    }
+
+    public int getPieceCount(int playerId) {
+        return Integer.bitCount(getPieces(playerId));
+    }
+
+    // Id of the player owning the square, 0 if empty
+    public int getPlayerAt(int square) {
+        int b = 1 << square;
+        if ((getPieces(1) & b) != 0)
+            return 1;
+        if ((getPieces(2) & b) != 0)
+            return 2;
+        return 0;
+    }
+
+    public boolean isMasterAt(int square) {
+        return ((masters[1] | masters[2]) & (1 << square)) != 0;
+    }
+    /* --- --- --- --- --- */
+
+    /* --------------- */
+    /* --- Setters --- */
+    public void setPiece(int playerId, boolean master, int square) {
+        if (master) {
+            masters[playerId] |= 1 << square;
+        } else {
+            pawns[playerId] |= 1 << square;
+        }
+    }
+
+    public void clearSquare(int square) {
+        int keep = ~(1 << square);
+        pawns[1] &= keep;
+        pawns[2] &= keep;
+        masters[1] &= keep;
+        masters[2] &= keep;
+    }
+
+    /**
+     * Moves the player's piece and removes any opponent piece on the target square.
+     * @return {@link #NO_CAPTURE}, {@link #PAWN_CAPTURED} or {@link #MASTER_CAPTURED}.
+     */
+    public int movePiece(int playerId, int from, int to) {
+        int fromBit = 1 << from;
+        int toBit = 1 << to;
+        int opp = opponent(playerId);
+
+        int captured = NO_CAPTURE;
+        if ((pawns[opp] & toBit) != 0) {
+            pawns[opp] &= ~toBit;
+            captured = PAWN_CAPTURED;
+        } else if ((masters[opp] & toBit) != 0) {
+            masters[opp] &= ~toBit;
+            captured = MASTER_CAPTURED;
+        }
+
+        if ((masters[playerId] & fromBit) != 0) {
+            masters[playerId] ^= fromBit | toBit;
+        } else {
+            pawns[playerId] ^= fromBit | toBit;
+        }
+        return captured;
+    }
+
+    /**
+     * Reverts {@link #movePiece}, putting back the captured piece if any.
+     */
+    public void unmovePiece(int playerId, int from, int to, int captured) {
+        int fromBit = 1 << from;
+        int toBit = 1 << to;
+        int opp = opponent(playerId);
+
+        if ((masters[playerId] & toBit) != 0) {
+            masters[playerId] ^= fromBit | toBit;
+        } else {
+            pawns[playerId] ^= fromBit | toBit;
+        }
+
+        if (captured == PAWN_CAPTURED) {
+            pawns[opp] |= toBit;
+        } else if (captured == MASTER_CAPTURED) {
+            masters[opp] |= toBit;
+        }
+    }
+    /* --- --- --- --- --- */
+
+    /* -------------- */
+    /* --- Status --- */
+    // Removes the player's own pieces from a mask of reachable squares
+    public int getLegalTargets(int playerId, int reachable) {
+        return reachable & ~getPieces(playerId);
+    }
+
+    public boolean isCapture(int playerId, int square) {
+        return (getPieces(opponent(playerId)) & (1 << square)) != 0;
+    }
+
+    /**
+     * Checks both win conditions for the player who just moved.
+     * @return The player's id if they won (Way of the Stone or Way of the Stream), 0 otherwise.
+     */
+    public int checkWinner(int playerId) {
+        int opp = opponent(playerId);
+        if (masters[opp] == 0) {
+            return playerId; // Way of the Stone
+        }
+        if ((masters[playerId] & (1 << TEMPLE_ARCH[opp])) != 0) {
+            return playerId; // Way of the Stream
+        }
+        return 0;
+    }
+    /* --- --- --- --- --- */
+
+    /* ----------------- */
+    /* --- Utilities --- */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        BitBoard other = (BitBoard) o;
+        return pawns[1] == other.pawns[1] && pawns[2] == other.pawns[2]
+                && masters[1] == other.masters[1] && masters[2] == other.masters[2];
+    }
+
+    @Override
+    public int hashCode() {
+        int result = pawns[1];
+        result = 31 * result + pawns[2];
+        result = 31 * result + masters[1];
+        result = 31 * result + masters[2];
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                int b = bit(r, c);
+                if ((masters[1] & b) != 0)
+                    sb.append("[M1]");
+                else if ((masters[2] & b) != 0)
+                    sb.append("[M2]");
+                else if ((pawns[1] & b) != 0)
+                    sb.append("[P1]");
+                else if ((pawns[2] & b) != 0)
+                    sb.append("[P2]");
+                else
+                    sb.append("[  ]");
+                sb.append(" ");
+            }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+    /* --- --- --- --- --- */
+}
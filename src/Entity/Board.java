@@ -2,6 +2,7 @@ package Entity;
 
 import java.awt.Point;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class Board {
@@ -9,6 +10,15 @@ public class Board {
     private int rows;
     private Piece[][] grid;
 
+    // Pieces of each player and their master. setPieceAt only marks them stale,
+    // so that moves made by the search do not pay for them; they are rebuilt from
+    // the grid by the first lookup after a change.
+    private List<Piece> piecesPlayer1 = Collections.emptyList();
+    private List<Piece> piecesPlayer2 = Collections.emptyList();
+    private Master masterPlayer1;
+    private Master masterPlayer2;
+    private boolean pieceListsStale = true;
+
     /* ------------------ */
     /* --- Construtor --- */
     // Default constructor initializes a standard 5x5 board
@@ -94,29 +104,31 @@ public class Board {
         return getPieceAt(position.x, position.y);
     }
 
+    /**
+     * @return A read-only list of the player's pieces on the board. The list does
+     *         not follow later changes to the board; calls in between changes
+     *         return the same list without scanning the grid.
+     */
     public List<Piece> getPiecesForPlayer(int playerId) {
-        List<Piece> pieces = new ArrayList<>();
-
-        for (int r = 0; r < this.rows; r++) {
-            for (int c = 0; c < this.columns; c++) {
-                Piece p = this.grid[r][c];
-                if (p != null && p.getPlayerId() == playerId) {
-                    pieces.add(p);
-                }
-            }
+        updatePieceLists();
+        if (playerId == 1) {
+            return piecesPlayer1;
+        } else if (playerId == 2) {
+            return piecesPlayer2;
         }
+        return Collections.emptyList();
+    }
 
-        return pieces;
+    public int getPieceCount(int playerId) {
+        return getPiecesForPlayer(playerId).size();
     }
 
     public Master getMasterForPlayer(int playerId) {
-        for (int r = 0; r < this.rows; r++) {
-            for (int c = 0; c < this.columns; c++) {
-                Piece p = this.grid[r][c];
-                if (p != null && p.getPlayerId() == playerId && p.isMaster()) {
-                    return (Master) p;
-                }
-            }
+        updatePieceLists();
+        if (playerId == 1) {
+            return masterPlayer1;
+        } else if (playerId == 2) {
+            return masterPlayer2;
         }
         return null; // Master not found
     }
@@ -129,6 +141,7 @@ public class Board {
             throw new IndexOutOfBoundsException("Invalid row or column index.");
         }
         grid[row][col] = piece;
+        pieceListsStale = true;
     }
 
     public void setPieceAt(Point position, Piece piece) {
@@ -143,6 +156,48 @@ public class Board {
             throw new IllegalArgumentException("Grid dimensions do not match the board dimensions.");
         }
         this.grid = grid;
+        invalidatePieceLists();
+    }
+    /* --- --- --- --- --- */
+
+    /* ------------------- */
+    /* --- Piece lists --- */
+    // Marks the piece lists and masters as stale. Needed after the grid returned
+    // by getGrid() was modified directly.
+    public void invalidatePieceLists() {
+        pieceListsStale = true;
+    }
+
+    private void updatePieceLists() {
+        if (!pieceListsStale) {
+            return;
+        }
+        ArrayList<Piece> pieces1 = new ArrayList<>();
+        ArrayList<Piece> pieces2 = new ArrayList<>();
+        masterPlayer1 = null;
+        masterPlayer2 = null;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                Piece piece = grid[r][c];
+                if (piece == null) {
+                    continue;
+                }
+                if (piece.getPlayerId() == 1) {
+                    pieces1.add(piece);
+                    if (piece.isMaster()) {
+                        masterPlayer1 = (Master) piece;
+                    }
+                } else if (piece.getPlayerId() == 2) {
+                    pieces2.add(piece);
+                    if (piece.isMaster()) {
+                        masterPlayer2 = (Master) piece;
+                    }
+                }
+            }
+        }
+        piecesPlayer1 = Collections.unmodifiableList(pieces1);
+        piecesPlayer2 = Collections.unmodifiableList(pieces2);
+        pieceListsStale = false;
     }
     /* --- --- --- --- --- */
 
@@ -156,14 +211,8 @@ public class Board {
     }
 
     public boolean isFull() {
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < columns; j++) {
-                if (grid[i][j] == null) {
-                    return false; // Found an empty cell
-                }
-            }
-        }
-        return true; // No empty cells found
+        updatePieceLists();
+        return piecesPlayer1.size() + piecesPlayer2.size() == rows * columns;
     }
 
     public boolean isValidPosition(int row, int col) {
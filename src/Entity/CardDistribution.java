@@ -0,0 +1,103 @@
+package Entity;
+
+/**
+ * Numbering of every distribution of 5 {@link Deck} cards: two in Player 1's
+ * hand, two in Player 2's hand and one neutral card. Hands are sets, so a
+ * distribution does not depend on the order of the cards in a hand.
+ * With the 16 card deck there are 120 * 91 * 12 = 131040 distributions,
+ * which fits in 17 bits.
+ */
+public final class CardDistribution {
+    private static final int DECK_SIZE = Deck.size();
+    private static final int PAIRS_P1 = DECK_SIZE * (DECK_SIZE - 1) / 2;
+    private static final int PAIRS_P2 = (DECK_SIZE - 2) * (DECK_SIZE - 3) / 2;
+    private static final int NEUTRALS = DECK_SIZE - 4;
+
+    public static final int COUNT = PAIRS_P1 * PAIRS_P2 * NEUTRALS;
+
+    // Decoded distributions, 4 bits per card: p1 low, p1 high, p2 low, p2 high, neutral
+    private static final int[] DECODED = new int[COUNT];
+
+    static {
+        if (DECK_SIZE > 16) {
+            throw new IllegalStateException("CardDistribution packs card indices on 4 bits.");
+        }
+        for (int a = 0; a < DECK_SIZE; a++) {
+            for (int b = a + 1; b < DECK_SIZE; b++) {
+                for (int c = 0; c < DECK_SIZE; c++) {
+                    for (int d = c + 1; d < DECK_SIZE; d++) {
+                        if (c == a || c == b || d == a || d == b) {
+                            continue;
+                        }
+                        for (int n = 0; n < DECK_SIZE; n++) {
+                            if (n == a || n == b || n == c || n == d) {
+                                continue;
+                            }
+                            DECODED[indexOf(a, b, c, d, n)] = a | (b << 4) | (c << 8) | (d << 12) | (n << 16);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private CardDistribution() {
+    }
+
+    /**
+     * @param p1First Deck index of one of Player 1's cards.
+     * @param p1Second Deck index of Player 1's other card.
+     * @param p2First Deck index of one of Player 2's cards.
+     * @param p2Second Deck index of Player 2's other card.
+     * @param neutral Deck index of the neutral card.
+     * @return The index of the distribution, in [0, {@link #COUNT}).
+     */
+    public static int indexOf(int p1First, int p1Second, int p2First, int p2Second, int neutral) {
+        int p1Pair = pairRank(p1First, p1Second, DECK_SIZE);
+        // Player 2's pair and the neutral card are ranked among the cards still available
+        int p2Pair = pairRank(rank(p2First, p1First, p1Second, -1, -1),
+                rank(p2Second, p1First, p1Second, -1, -1), DECK_SIZE - 2);
+        int n = rank(neutral, p1First, p1Second, p2First, p2Second);
+        return (p1Pair * PAIRS_P2 + p2Pair) * NEUTRALS + n;
+    }
+
+    // Rank of a card once up to 4 other cards are removed from the deck (-1 = unused)
+    private static int rank(int card, int x1, int x2, int x3, int x4) {
+        int r = card;
+        if (x1 >= 0 && x1 < card) r--;
+        if (x2 >= 0 && x2 < card) r--;
+        if (x3 >= 0 && x3 < card) r--;
+        if (x4 >= 0 && x4 < card) r--;
+        return r;
+    }
+
+    // Lexicographic index of the pair {a, b} among the pairs of m cards
+    private static int pairRank(int a, int b, int m) {
+        int lo = Math.min(a, b);
+        int hi = Math.max(a, b);
+        return lo * (2 * m - lo - 1) / 2 + (hi - lo - 1);
+    }
+
+    public static int getPlayer1Card(int index, int slot) {
+        return (DECODED[index] >>> (slot << 2)) & 0xF;
+    }
+
+    public static int getPlayer2Card(int index, int slot) {
+        return (DECODED[index] >>> (8 + (slot << 2))) & 0xF;
+    }
+
+    public static int getNeutralCard(int index) {
+        return (DECODED[index] >>> 16) & 0xF;
+    }
+
+    /**
+     * @return The index of the distribution currently in the game state.
+     */
+    public static int indexOf(GameState gameState) {
+        Player p1 = gameState.getPlayer1();
+        Player p2 = gameState.getPlayer2();
+        return indexOf(Deck.indexOf(p1.getMoveCards().get(0)), Deck.indexOf(p1.getMoveCards().get(1)),
+                Deck.indexOf(p2.getMoveCards().get(0)), Deck.indexOf(p2.getMoveCards().get(1)),
+                Deck.indexOf(gameState.getNeutralCardMove()));
+    }
+}
@@ -0,0 +1,86 @@
+package Entity;
+
+/**
+ * Prints every game event on the console, as the engine used to do itself.
+ */
+public class ConsoleGameEventListener implements GameEventListener {
+
+    @Override
+    public void onGameStarted(GameState gameState) {
+        System.out.println("GameState: Starting player set to Player " + gameState.getCurrentPlayerId());
+        System.out.println("GameState: Game setup initialized with players and move cards.");
+        System.out.println(gameState.getPlayer1());
+        System.out.println(gameState.getPlayer2());
+        System.out.println("GameState: Neutral Move Card: " + gameState.getNeutralCardMove());
+        System.out.println("GameState: Current Player ID: " + gameState.getCurrentPlayerId());
+    }
+
+    @Override
+    public void onGameReset() {
+        System.out.println("GameState: Game has been reset.");
+    }
+
+    @Override
+    public void onTurnPlayed(int playerId, int from, int to, int cardIndex) {
+        System.out.println("GameState: Player " + playerId + " moved " + square(from) + " -> " + square(to)
+                + " using " + cardName(cardIndex));
+    }
+
+    @Override
+    public void onCapture(int playerId, int square, boolean master) {
+        System.out.println("GameState: Piece captured: " + (master ? "M" : "P") + BitBoard.opponent(playerId)
+                + " at " + square(square));
+    }
+
+    @Override
+    public void onCardExchange(int playerId, int cardPlayed, int cardReceived) {
+        System.out.println("GameState: Player " + playerId + " exchanged " + cardName(cardPlayed)
+                + " for " + cardName(cardReceived));
+    }
+
+    @Override
+    public void onTurnSwitched(int playerId) {
+        System.out.println("GameState: Switched to Player " + playerId + "'s turn.");
+    }
+
+    @Override
+    public void onGameOver(int winnerId, boolean byStone) {
+        System.out.println("GameState: Player " + winnerId + " wins by Way of the " + (byStone ? "Stone" : "Stream"));
+    }
+
+    @Override
+    public void onInvalidMove(int playerId, InvalidMoveReason reason) {
+        System.err.println("GameState: Invalid move from Player " + playerId + ": " + describe(reason));
+    }
+
+    static String describe(InvalidMoveReason reason) {
+        switch (reason) {
+            case GAME_OVER:
+                return "Game is already over. Cannot play turn.";
+            case MISSING_PARAMETER:
+                return "Invalid turn parameters.";
+            case NOT_OWN_PIECE:
+                return "Piece does not belong to the current player.";
+            case CARD_NOT_IN_HAND:
+                return "Move card does not belong to the current player.";
+            case OUT_OF_BOARD:
+                return "Target position is not valid on the board.";
+            case INVALID_PATTERN:
+                return "Invalid move pattern for the piece.";
+            case TARGET_OCCUPIED:
+                return "Target position holds one of the player's pieces.";
+            case CARD_EXCHANGE_FAILED:
+                return "Failed to exchange move card.";
+            default:
+                return reason.name();
+        }
+    }
+
+    static String square(int square) {
+        return "(" + BitBoard.row(square) + "," + BitBoard.col(square) + ")";
+    }
+
+    static String cardName(int cardIndex) {
+        return cardIndex >= 0 ? Deck.getCard(cardIndex).getCardName() : "?";
+    }
+}
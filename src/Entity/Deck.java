@@ -17,32 +17,51 @@ public class Deck  {
      */
     private static void generateDeck() {
         // Example of adding move cards to the deck
-        DECK_CARDS[0]  = new MoveCard("Tiger",    List.of(new Point(0,  2), new Point(0, -1)), 1);
-        DECK_CARDS[1]  = new MoveCard("Dragon",   List.of(new Point(-2, 1), new Point(2,  1), new Point(-1, -1), new Point(1, -1)), 2);
-        DECK_CARDS[2]  = new MoveCard("Frog",     List.of(new Point(-2, 0), new Point(-1, 1), new Point(1, -1)), 1);
-        DECK_CARDS[3]  = new MoveCard("Rabbit",   List.of(new Point(2, 0), new Point(1, 1), new Point(-1, -1)), 2);
-        DECK_CARDS[4]  = new MoveCard("Crab",     List.of(new Point(0, 1), new Point(-2, 0), new Point(2, 0)), 1);
-        DECK_CARDS[5]  = new MoveCard("Elephant", List.of(new Point(-1, 0), new Point(1, 0), new Point(-1, 1), new Point(1, 1)), 2);
-        DECK_CARDS[8]  = new MoveCard("Goose",    List.of(new Point(1, -1), new Point(1, 0), new Point(-1, 0), new Point(-1, 1)), 1);
-        DECK_CARDS[9]  = new MoveCard("Rooster",  List.of(new Point(-1, -1), new Point(-1, 0), new Point(1, 1), new Point(1, 0)), 2);
-        DECK_CARDS[10] = new MoveCard("Monkey",   List.of(new Point(-1, 1), new Point(1, 1), new Point(-1, -1), new Point(1, -1)), 1);
-        DECK_CARDS[6]  = new MoveCard("Mantis",   List.of(new Point(0, -1), new Point(-1, 1), new Point(1, 1)), 2);
-        DECK_CARDS[11] = new MoveCard("Horse",    List.of(new Point(0, 1), new Point(-1, 0), new Point(0, -1)), 1);
-        DECK_CARDS[15] = new MoveCard("Ox",       List.of(new Point(0, 1), new Point(1, 0), new Point(0, -1)), 2);
-        DECK_CARDS[14] = new MoveCard("Crane",    List.of(new Point(-1, -1), new Point(1, -1), new Point(0, 1)), 1);
-        DECK_CARDS[7]  = new MoveCard("Boar",     List.of(new Point(0, 1), new Point(-1, 0), new Point(1, 0)), 2);
-        DECK_CARDS[13] = new MoveCard("Eel",      List.of(new Point(-1, 0), new Point(-1, 1), new Point(-1, -1)), 1);
-        DECK_CARDS[12] = new MoveCard("Cobra",    List.of(new Point(-1, 0), new Point(1, 1), new Point(1, -1)), 2);
+        DECK_CARDS[0]  = new MoveCard(0,  "Tiger",    List.of(new Point(0,  2), new Point(0, -1)), 1);
+        DECK_CARDS[1]  = new MoveCard(1,  "Dragon",   List.of(new Point(-2, 1), new Point(2,  1), new Point(-1, -1), new Point(1, -1)), 2);
+        DECK_CARDS[2]  = new MoveCard(2,  "Frog",     List.of(new Point(-2, 0), new Point(-1, 1), new Point(1, -1)), 1);
+        DECK_CARDS[3]  = new MoveCard(3,  "Rabbit",   List.of(new Point(2, 0), new Point(1, 1), new Point(-1, -1)), 2);
+        DECK_CARDS[4]  = new MoveCard(4,  "Crab",     List.of(new Point(0, 1), new Point(-2, 0), new Point(2, 0)), 1);
+        DECK_CARDS[5]  = new MoveCard(5,  "Elephant", List.of(new Point(-1, 0), new Point(1, 0), new Point(-1, 1), new Point(1, 1)), 2);
+        DECK_CARDS[8]  = new MoveCard(8,  "Goose",    List.of(new Point(1, -1), new Point(1, 0), new Point(-1, 0), new Point(-1, 1)), 1);
+        DECK_CARDS[9]  = new MoveCard(9,  "Rooster",  List.of(new Point(-1, -1), new Point(-1, 0), new Point(1, 1), new Point(1, 0)), 2);
+        DECK_CARDS[10] = new MoveCard(10, "Monkey",   List.of(new Point(-1, 1), new Point(1, 1), new Point(-1, -1), new Point(1, -1)), 1);
+        DECK_CARDS[6]  = new MoveCard(6,  "Mantis",   List.of(new Point(0, -1), new Point(-1, 1), new Point(1, 1)), 2);
+        DECK_CARDS[11] = new MoveCard(11, "Horse",    List.of(new Point(0, 1), new Point(-1, 0), new Point(0, -1)), 1);
+        DECK_CARDS[15] = new MoveCard(15, "Ox",       List.of(new Point(0, 1), new Point(1, 0), new Point(0, -1)), 2);
+        DECK_CARDS[14] = new MoveCard(14, "Crane",    List.of(new Point(-1, -1), new Point(1, -1), new Point(0, 1)), 1);
+        DECK_CARDS[7]  = new MoveCard(7,  "Boar",     List.of(new Point(0, 1), new Point(-1, 0), new Point(1, 0)), 2);
+        DECK_CARDS[13] = new MoveCard(13, "Eel",      List.of(new Point(-1, 0), new Point(-1, 1), new Point(-1, -1)), 1);
+        DECK_CARDS[12] = new MoveCard(12, "Cobra",    List.of(new Point(-1, 0), new Point(1, 1), new Point(1, -1)), 2);
     }
 
     public static boolean contains(MoveCard moveCard) {
-        if (moveCard == null) return false;
-        for (MoveCard card : DECK_CARDS) {
-            if (card.equals(moveCard)) {
-                return true; // Found a matching move card in the deck
+        return indexOf(moveCard) >= 0;
+    }
+
+    /**
+     * @return The index of the card in the deck, or -1 if it is not a deck card.
+     */
+    public static int indexOf(MoveCard moveCard) {
+        if (moveCard == null) return -1;
+        if (moveCard.getId() != MoveCard.NO_ID) {
+            return moveCard.getId(); // Deck cards carry their index
+        }
+        // Card built outside the deck: look for an equal one
+        for (int i = 0; i < DECK_CARDS.length; i++) {
+            if (DECK_CARDS[i].equals(moveCard)) {
+                return i;
             }
         }
-        return false; // No matching move card found
+        return -1;
+    }
+
+    public static int size() {
+        return DECK_CARDS.length;
+    }
+
+    public static MoveCard getCard(int index) {
+        return DECK_CARDS[index];
     }
 
     public static MoveCard[] getDeckCards() {
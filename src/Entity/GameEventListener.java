@@ -0,0 +1,42 @@
+package Entity;
+
+/**
+ * Receives the events of a game played through {@link GameState#playTurn}.
+ * Squares are {@link BitBoard} square indices and cards are {@link Deck}
+ * indices (-1 for a card outside the deck), so firing an event allocates
+ * nothing. Every method does nothing by default.
+ */
+public interface GameEventListener {
+    // Listener used by default: ignores every event
+    GameEventListener NONE = new GameEventListener() {
+    };
+
+    // Cards have been dealt and the starting player chosen
+    default void onGameStarted(GameState gameState) {
+    }
+
+    default void onGameReset() {
+    }
+
+    // A piece of the player moved from one square to another using a card
+    default void onTurnPlayed(int playerId, int from, int to, int cardIndex) {
+    }
+
+    // The player captured the opponent's piece standing on the square
+    default void onCapture(int playerId, int square, boolean master) {
+    }
+
+    // The player gave the played card to the neutral slot and took the neutral card
+    default void onCardExchange(int playerId, int cardPlayed, int cardReceived) {
+    }
+
+    default void onTurnSwitched(int playerId) {
+    }
+
+    // The game ended, byStone is false when the master reached the temple arch
+    default void onGameOver(int winnerId, boolean byStone) {
+    }
+
+    default void onInvalidMove(int playerId, InvalidMoveReason reason) {
+    }
+}
@@ -2,15 +2,24 @@ package Entity;
 
 import java.awt.Point;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.Scanner;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class GameState {
+    // Game status strings, shared so that status changes do not allocate
+    public static final String STATUS_ONGOING = "ongoing";
+    private static final String[] WIN_BY_STONE = { null,
+            "Player 1 wins by Way of the Stone", "Player 2 wins by Way of the Stone" };
+    private static final String[] WIN_BY_STREAM = { null,
+            "Player 1 wins by Way of the Stream", "Player 2 wins by Way of the Stream" };
+
     // Attributes representing the game state
     private Board board;
+    // Mask view of the board, kept in sync with every move
+    private BitBoard bitBoard;
     private Player player1;
     private Player player2;
     private MoveCard neutralCardMove;
@@ -22,6 +31,10 @@ public class GameState {
 
     // Game status (e.g., ongoing, finished)
     private String gameStatus;
+    // Zobrist key of the position (pieces, side to move and cards), see Zobrist
+    private long zobristKey;
+    // Receives the game events (no-op by default)
+    private GameEventListener eventListener = GameEventListener.NONE;
     // Game mode (e.g., single-player, multiplayer)
     // private String gameMode;
     // Game settings (e.g., difficulty level, time limits)
@@ -32,17 +45,21 @@ public class GameState {
     /* --- Constructor --- */
     public GameState() {
         this.board = new Board();
+        this.bitBoard = new BitBoard(this.board);
         this.player1 = new Player(1);
         this.player2 = new Player(2);
         this.currentPlayerId = 1; // Start with player 1
-        this.gameStatus = "ongoing"; // Initial game status
+        this.gameStatus = STATUS_ONGOING; // Initial game status
+        this.zobristKey = Zobrist.compute(this);
         // this.gameMode = "multiplayer"; // Default game mode
         // this.gameSettings = "default"; // Default game settings
     }
 
-    // Copy constructor
+    // Copy constructor. The event listener is not copied: copies are used for
+    // simulations, which must stay silent.
     public GameState(GameState otherGameState) {
         this.board = new Board(otherGameState.board);
+        this.bitBoard = new BitBoard(otherGameState.bitBoard);
         this.player1 = new Player(otherGameState.player1);
         this.player2 = new Player(otherGameState.player2);
         this.currentPlayerId = otherGameState.getCurrentPlayerId();
@@ -56,7 +73,9 @@ public class GameState {
             this.currentPiece = null;
         }
 
+        this.neutralCardMove = otherGameState.getNeutralCardMove();
         this.gameStatus = otherGameState.getGameStatus();
+        this.zobristKey = otherGameState.zobristKey;
         // this.gameMode = otherGameState.gameMode;
         // this.gameSettings = otherGameState.gameSettings;
     }
@@ -68,6 +87,10 @@ public class GameState {
         return board;
     }
 
+    public BitBoard getBitBoard() {
+        return bitBoard;
+    }
+
     public Player getPlayer(int playerId) {
         if (playerId == 1) {
             return player1;
@@ -101,24 +124,41 @@ public class GameState {
     public MoveCard getNeutralCardMove() {
         return this.neutralCardMove;
     }
+
+    /**
+     * @return The 64-bit key of the position, covering piece placement, side to
+     *         move, both hands and the neutral card. Maintained incrementally.
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    public GameEventListener getEventListener() {
+        return eventListener;
+    }
     /* --- --- --- --- --- */
 
     /* -------------- */
     /* --- Setter --- */
     public void setBoard(Board board) {
         this.board = board;
+        this.bitBoard.load(board);
+        refreshZobristKey();
     }
 
     public void setPlayer1(Player player1) {
         this.player1 = player1;
+        refreshZobristKey();
     }
 
     public void setPlayer2(Player player2) {
         this.player2 = player2;
+        refreshZobristKey();
     }
 
     public void setCurrentPlayerId(int currentPlayerId) {
         this.currentPlayerId = currentPlayerId;
+        refreshZobristKey();
     }
 
     public void setCurrentPiece(Piece currentPiece) {
@@ -131,6 +171,17 @@ public class GameState {
 
     public void setNeutralCardMove(MoveCard neutralCardMove) {
         this.neutralCardMove = neutralCardMove;
+        refreshZobristKey();
+    }
+
+    public void setEventListener(GameEventListener eventListener) {
+        this.eventListener = (eventListener != null) ? eventListener : GameEventListener.NONE;
+    }
+
+    // Recomputes the Zobrist key from scratch, needed after the state was changed
+    // from outside (e.g. a hand edited through Player directly)
+    public void refreshZobristKey() {
+        this.zobristKey = Zobrist.compute(this);
     }
     /* --- --- --- --- --- */
 
@@ -144,38 +195,36 @@ public class GameState {
             System.err.println("GameState: Game is not properly set up");
             return 0;
         }
+        return checkWinConditions(currentPlayer.getId());
+    }
+
+    /**
+     * Checks whether the given player has won, and if so sets the game status.
+     *
+     * @return The player's id if they have won, 0 otherwise.
+     */
+    public int checkWinConditions(int playerId) {
+        int opponentId = BitBoard.opponent(playerId);
 
         // First condition: Capture opponent's Master (Way of the Stone)
-        Master opponentMaster = this.board.getMasterForPlayer(opponentPlayer.getId());
-        if (opponentMaster == null) {
-            this.gameStatus = "Player " + currentPlayer.getId() + " wins by Way of the Stone";
-            return currentPlayer.getId();
+        if (this.bitBoard.getMaster(opponentId) == 0) {
+            this.gameStatus = WIN_BY_STONE[playerId];
+            return playerId;
         }
 
-        // Second Condition: Current player's Master reachs opponents's Temple Arch (Way
+        // Second Condition: Player's Master reachs opponents's Temple Arch (Way
         // of the Stream)
-        Master currentPlayerMaster = board.getMasterForPlayer(currentPlayer.getId());
-        if (currentPlayerMaster != null) {
-            Point currentPlayerMasterPos = currentPlayerMaster.getPosition();
-            Point opponentTempleArch;
-
-            if (opponentPlayer.getId() == player1.getId()) {
-                opponentTempleArch = new Point(2, 0);
-            } else {
-                opponentTempleArch = new Point(2, 4);
-            }
-
-            if (currentPlayerMasterPos.equals(opponentTempleArch)) {
-                this.gameStatus = "Player " + currentPlayer.getId() + " wins by Way of the Stream";
-                return currentPlayer.getId();
-            }
+        int opponentTempleArch = 1 << BitBoard.getTempleArch(opponentId);
+        if ((this.bitBoard.getMaster(playerId) & opponentTempleArch) != 0) {
+            this.gameStatus = WIN_BY_STREAM[playerId];
+            return playerId;
         }
 
         return 0;
     }
 
     public boolean isGameOver() {
-        return !this.gameStatus.equalsIgnoreCase("ongoing");
+        return !this.gameStatus.equalsIgnoreCase(STATUS_ONGOING);
     }
     /* --- --- --- --- --- */
 
@@ -195,7 +244,8 @@ public class GameState {
             return this.player1;
     }
 
-    // Gets all possible moves for the current player based on their pieces and move cards
+    // Gets all possible destinations for the current player based on their pieces and move cards.
+    // Each destination appears once, even when several pieces or cards reach it.
     public ArrayList<Point> getPossibleMoves(Player player) {
         ArrayList<Point> possibleMoves = new ArrayList<>();
         if (player == null) {
@@ -203,26 +253,17 @@ public class GameState {
             return possibleMoves;
         }
 
-        List<Piece> playerPieces = this.board.getPiecesForPlayer(player.getId());
         ArrayList<MoveCard> playerCards = player.getMoveCards();
+        int ownPieces = this.bitBoard.getPieces(player.getId());
 
-        for (Piece piece : playerPieces) {
-            Point piecePosition = piece.getPosition();
+        int targets = 0;
+        for (int pieces = ownPieces; pieces != 0; pieces &= pieces - 1) {
+            int from = Integer.numberOfTrailingZeros(pieces);
             for (MoveCard card : playerCards) {
-                for (Point move : card.getMoves()) {
-                    Point newPosition;
-                    if (player.getId() == 1) {
-                        newPosition = new Point(piecePosition.x + move.x, piecePosition.y + move.y);
-                    } else {
-                        newPosition = new Point(piecePosition.x - move.x, piecePosition.y - move.y);
-                    }
-                    if (this.board.isValidPosition(newPosition) && 
-                        (this.board.getPieceAt(newPosition) == null || !this.board.getPieceAt(newPosition).isBelongTo(player))) {
-                        possibleMoves.add(newPosition);
-                    }
-                }
+                targets |= MoveTable.getTargets(card, player.getId(), from);
             }
         }
+        addTargets(possibleMoves, targets & ~ownPieces);
         return possibleMoves;
     }
 
@@ -234,44 +275,79 @@ public class GameState {
             return possibleMoves;
         }
 
-        Point piecePosition = piece.getPosition();
-        for (Point move : card.getMoves()) {
-            Point newPosition;
-            if (player.getId() == 1) {
-                newPosition = new Point(piecePosition.x + move.x, piecePosition.y + move.y);
-            } else {
-                newPosition = new Point(piecePosition.x - move.x, piecePosition.y - move.y);
-            }
-            if (this.board.isValidPosition(newPosition) && 
-                (this.board.getPieceAt(newPosition) == null || !this.board.getPieceAt(newPosition).isBelongTo(player))) {
-                possibleMoves.add(newPosition);
-            }
-        }
+        int from = BitBoard.square(piece.getPosX(), piece.getPosY());
+        int ownPieces = this.bitBoard.getPieces(player.getId());
+        addTargets(possibleMoves, MoveTable.getTargets(card, player.getId(), from) & ~ownPieces);
         return possibleMoves;
     }
+
+    /**
+     * Generates every legal move of the current player as fully specified packed
+     * moves (origin, target, card and capture flag, see {@link Move}).
+     * @param moves Buffer receiving the moves, at least {@link MoveGenerator#MAX_MOVES} long.
+     * @return The number of moves written, 0 if the player cannot move.
+     */
+    public int generateMoves(int[] moves) {
+        ArrayList<MoveCard> hand = getCurrentPlayer().getMoveCards();
+        if (hand.size() < 2) {
+            return 0;
+        }
+        return MoveGenerator.generate(this.bitBoard, this.currentPlayerId,
+                Deck.indexOf(hand.get(0)), Deck.indexOf(hand.get(1)), moves);
+    }
+
+    // Converts a mask of target squares into board positions
+    private static void addTargets(ArrayList<Point> possibleMoves, int targets) {
+        for (int m = targets; m != 0; m &= m - 1) {
+            int sq = Integer.numberOfTrailingZeros(m);
+            possibleMoves.add(new Point(BitBoard.row(sq), BitBoard.col(sq)));
+        }
+    }
     /* --- --- --- --- --- */
 
 
     /* ------------------- */
     /* --- Game Engine --- */
-    // Initializes the game setup by shuffling the deck and distributing cards to
-    // players
+    // Initializes the game setup with a random deal. Unseeded: each thread draws
+    // from its own generator, so parallel games do not contend on one.
     public void initializeGameSetup() {
-        MoveCard[] deckCards = Deck.getDeckCards();
-        if (deckCards.length < 5) {
-            throw new IllegalStateException("Not enough cards to start the game");
-        }
+        dealCards(ThreadLocalRandom.current().nextInt(CardDistribution.COUNT));
+    }
 
-        // Shuffle the card
-        ArrayList<MoveCard> shuffleDeck = new ArrayList<>(Arrays.asList(deckCards));
-        Collections.shuffle(shuffleDeck);
+    /**
+     * Initializes the game setup with a deal drawn from the seed, so that the
+     * game can be replayed.
+     */
+    public void initializeGameSetup(long seed) {
+        initializeGameSetup(new SplittableRandom(seed));
+    }
 
-        // Distribute the cards: 2 for p1, 2 for p2, 1 neutral
-        player1.setMoveCards(new ArrayList<>(List.of(shuffleDeck.get(0), shuffleDeck.get(1))));
+    /**
+     * Initializes the game setup with a deal drawn from the generator. Parallel
+     * simulations give each worker its own {@link SplittableRandom#split()}, which
+     * keeps them reproducible and free of contention. Every deal is equally likely.
+     */
+    public void initializeGameSetup(SplittableRandom random) {
+        dealCards(random.nextInt(CardDistribution.COUNT));
+    }
+
+    /**
+     * Deals the cards of a {@link CardDistribution}: 2 for each player, 1 neutral.
+     * The neutral card sets the starting player. Indices 0 to
+     * {@link CardDistribution#COUNT} - 1 enumerate every deal of the deck.
+     * The board is left as it is.
+     */
+    public void dealCards(int distribution) {
+        if (distribution < 0 || distribution >= CardDistribution.COUNT) {
+            throw new IllegalArgumentException("Unknown card distribution: " + distribution);
+        }
+        player1.setMoveCards(new ArrayList<>(List.of(Deck.getCard(CardDistribution.getPlayer1Card(distribution, 0)),
+                Deck.getCard(CardDistribution.getPlayer1Card(distribution, 1)))));
 
-        player2.setMoveCards(new ArrayList<>(List.of(shuffleDeck.get(2), shuffleDeck.get(3))));
+        player2.setMoveCards(new ArrayList<>(List.of(Deck.getCard(CardDistribution.getPlayer2Card(distribution, 0)),
+                Deck.getCard(CardDistribution.getPlayer2Card(distribution, 1)))));
 
-        this.setNeutralCardMove(shuffleDeck.get(4));
+        this.setNeutralCardMove(Deck.getCard(CardDistribution.getNeutralCard(distribution)));
 
         // Base on the neutral card, set the starting player
         if (this.getNeutralCardMove().getStarting() == 1) {
@@ -279,96 +355,94 @@ public class GameState {
         } else {
             this.setCurrentPlayerId(2);
         }
-        System.out.println("GameState: Starting player set to Player " + this.getCurrentPlayerId());
 
-        this.gameStatus = "ongoing"; // Reset game status to ongoing
+        this.gameStatus = STATUS_ONGOING; // Reset game status to ongoing
         this.currentPiece = null; // Reset current piece
+        refreshZobristKey();
 
-        System.out.println("GameState: Game setup initialized with players and move cards.");
-        System.out.println(player1);
-        System.out.println(player2);
-        System.out.println("GameState: Neutral Move Card: " + this.getNeutralCardMove());
-        System.out.println("GameState: Current Player ID: " + this.getCurrentPlayerId());
+        eventListener.onGameStarted(this);
+    }
 
+    /**
+     * @return A new game on the starting board with the cards of the distribution.
+     */
+    public static GameState newDeal(int distribution) {
+        GameState gameState = new GameState();
+        gameState.dealCards(distribution);
+        return gameState;
     }
 
     // Plays a turn by moving a piece and applying the move card
     public boolean playTurn(Piece pieceToMove, MoveCard cardPlayed, Point targetPosition) {
         if (isGameOver()) {
-            System.err.println("GameState: Game is already over. Cannot play turn.");
+            eventListener.onInvalidMove(this.currentPlayerId, InvalidMoveReason.GAME_OVER);
             return false;
         }
 
         Player player = getCurrentPlayer();
         if (player == null || pieceToMove == null || cardPlayed == null || targetPosition == null) {
-            System.err.println("GameState: Invalid turn parameters.");
+            eventListener.onInvalidMove(this.currentPlayerId, InvalidMoveReason.MISSING_PARAMETER);
             return false;
         }
 
         // Check if the piece belongs to the current player
         if (!pieceToMove.isBelongTo(player)) {
-            System.err.println("GameState: Piece " + pieceToMove + " does not belong to the current player " + player.getId());
+            eventListener.onInvalidMove(player.getId(), InvalidMoveReason.NOT_OWN_PIECE);
             return false;
         }
 
         // Verify if the move card is belong to the current player
         if (!player.hasMoveCard(cardPlayed)) {
-            System.err.println("GameState: Move card does not belong to the current player.");
+            eventListener.onInvalidMove(player.getId(), InvalidMoveReason.CARD_NOT_IN_HAND);
             return false;
         }
 
-        // Validate the move using (logic from MoveCard)
-        Point piecePosition = pieceToMove.getPosition();
-        boolean patternMatched = false;
-        Point newPosition = null;
-        for (Point move : cardPlayed.getMoves()) {
-            if (this.currentPlayerId == 1) {
-                newPosition = new Point(piecePosition.x + move.x, piecePosition.y + move.y);
-            } else {
-                newPosition = new Point(piecePosition.x - move.x, piecePosition.y - move.y);
-            }
-            if (newPosition.equals(targetPosition)) {
-                patternMatched = true;
-                break; // Found a valid move pattern
-            }
-        }
-
-        if (!patternMatched) {
-            System.err.println("GameState: Invalid move pattern for the piece.");
+        if (!this.board.isValidPosition(targetPosition)) {
+            eventListener.onInvalidMove(player.getId(), InvalidMoveReason.OUT_OF_BOARD);
             return false;
         }
 
-        if (!this.board.isValidPosition(targetPosition)) {
-            System.err.println("GameState: Target position is not valid on the board.");
+        // Validate the move against the precomputed targets of the card
+        Point piecePosition = pieceToMove.getPosition();
+        int fromSquare = BitBoard.square(piecePosition.x, piecePosition.y);
+        int targetSquare = BitBoard.square(targetPosition.x, targetPosition.y);
+        if ((MoveTable.getTargets(cardPlayed, player.getId(), fromSquare) & (1 << targetSquare)) == 0) {
+            eventListener.onInvalidMove(player.getId(), InvalidMoveReason.INVALID_PATTERN);
             return false;
         }
 
-        Piece pieceAtTarget = this.board.getPieceAt(targetPosition);
-        if (pieceAtTarget != null && pieceAtTarget.isBelongTo(player)) {
+        if ((this.bitBoard.getPieces(player.getId()) & (1 << targetSquare)) != 0) {
+            eventListener.onInvalidMove(player.getId(), InvalidMoveReason.TARGET_OCCUPIED);
             return false;
         }
 
         // If everything is valid, proceed with the move
-        // Move the piece to the target position
-        if (pieceAtTarget != null) {
-            System.out.println("GameState: Piece captured: " + pieceAtTarget + " at " + targetPosition);
-        }
-
         // Process the move
         this.board.setPieceAt(piecePosition, null); // Remove piece from old position
         this.board.setPieceAt(targetPosition, pieceToMove); // Place piece at new position
         pieceToMove.setPosition(targetPosition); // Update piece's position
+        int captured = this.bitBoard.movePiece(player.getId(), fromSquare, targetSquare);
+        updatePieceKeys(player.getId(), pieceToMove.isMaster(), fromSquare, targetSquare, captured);
+        if (captured != BitBoard.NO_CAPTURE) {
+            eventListener.onCapture(player.getId(), targetSquare, captured == BitBoard.MASTER_CAPTURED);
+        }
+        int cardIndex = Deck.indexOf(cardPlayed);
+        eventListener.onTurnPlayed(player.getId(), fromSquare, targetSquare, cardIndex);
 
         // Exchange the move card
-        if (!player.exchangeMoveCard(cardPlayed, this.getNeutralCardMove())) {
-            System.err.println("GameState: Failed to exchange move card.");
+        MoveCard neutralCard = this.neutralCardMove;
+        if (!player.exchangeMoveCard(cardPlayed, neutralCard)) {
+            eventListener.onInvalidMove(player.getId(), InvalidMoveReason.CARD_EXCHANGE_FAILED);
             return false;
         }
-        this.setNeutralCardMove(cardPlayed); // Set the neutral card to the played card
+        updateCardKeys(player.getId(), cardPlayed, neutralCard);
+        this.neutralCardMove = cardPlayed; // Set the neutral card to the played card
+        eventListener.onCardExchange(player.getId(), cardIndex, Deck.indexOf(neutralCard));
 
         // Verify win conditions after the move
         int winnerId = checkWinConditions();
         if (winnerId != 0) {
+            eventListener.onGameOver(winnerId, captured == BitBoard.MASTER_CAPTURED);
             return true;
         }
 
@@ -384,25 +458,136 @@ public class GameState {
         } else {
             this.currentPlayerId = this.player1.getId();
         }
+        this.zobristKey ^= Zobrist.SIDE_KEY;
         this.currentPiece = null; // Reset current piece for the new turn
-        System.out.println("GameState: Switched to Player " + this.currentPlayerId + "'s turn.");
+        eventListener.onTurnSwitched(this.currentPlayerId);
+    }
+
+    /**
+     * Plays a move in place, for search code exploring hypothetical moves.
+     * Unlike {@link #playTurn}, the move is not validated: it must be a legal
+     * move of the current player. Nothing is allocated.
+     * @param move The packed move (see {@link Move}).
+     * @param undo Record filled with what is needed to take the move back.
+     * @return The id of the winner if the move ends the game, 0 otherwise.
+     */
+    public int makeMove(int move, UndoRecord undo) {
+        int playerId = this.currentPlayerId;
+        int from = Move.getFrom(move);
+        int to = Move.getTo(move);
+        int fromRow = BitBoard.row(from), fromCol = BitBoard.col(from);
+        int toRow = BitBoard.row(to), toCol = BitBoard.col(to);
+
+        undo.move = move;
+        undo.playerId = playerId;
+        undo.previousKey = this.zobristKey;
+        undo.previousStatus = this.gameStatus;
+        undo.previousCurrentPiece = this.currentPiece;
+
+        // Move the piece, removing the captured one
+        Piece piece = this.board.getPieceAt(fromRow, fromCol);
+        undo.capturedPiece = this.board.getPieceAt(toRow, toCol);
+        this.board.setPieceAt(fromRow, fromCol, null);
+        this.board.setPieceAt(toRow, toCol, piece);
+        piece.setPosition(toRow, toCol);
+        undo.capturedType = this.bitBoard.movePiece(playerId, from, to);
+        updatePieceKeys(playerId, piece.isMaster(), from, to, undo.capturedType);
+
+        // Exchange the played card with the neutral card
+        Player player = getPlayer(playerId);
+        MoveCard cardPlayed = Deck.getCard(Move.getCardIndex(move));
+        int slot = (Deck.indexOf(player.getMoveCards().get(0)) == Move.getCardIndex(move)) ? 0 : 1;
+        undo.handSlot = slot;
+        updateCardKeys(playerId, cardPlayed, this.neutralCardMove);
+        player.setMoveCard(slot, this.neutralCardMove);
+        this.neutralCardMove = cardPlayed;
+
+        this.currentPiece = null;
+        int winnerId = this.bitBoard.checkWinner(playerId);
+        if (winnerId != 0) {
+            this.gameStatus = (undo.capturedType == BitBoard.MASTER_CAPTURED)
+                    ? WIN_BY_STONE[winnerId] : WIN_BY_STREAM[winnerId];
+        } else {
+            this.currentPlayerId = BitBoard.opponent(playerId);
+            this.zobristKey ^= Zobrist.SIDE_KEY;
+        }
+        return winnerId;
+    }
+
+    /**
+     * Takes back a move played with {@link #makeMove}. Moves must be taken back
+     * in the reverse order they were made.
+     * @param undo The record filled when the move was made.
+     */
+    public void unmakeMove(UndoRecord undo) {
+        int playerId = undo.playerId;
+        int move = undo.move;
+        int from = Move.getFrom(move);
+        int to = Move.getTo(move);
+        int fromRow = BitBoard.row(from), fromCol = BitBoard.col(from);
+        int toRow = BitBoard.row(to), toCol = BitBoard.col(to);
+
+        this.currentPlayerId = playerId;
+        this.zobristKey = undo.previousKey;
+        this.gameStatus = undo.previousStatus;
+        this.currentPiece = undo.previousCurrentPiece;
+
+        // Give the played card back and restore the neutral card
+        this.neutralCardMove = getPlayer(playerId).setMoveCard(undo.handSlot, this.neutralCardMove);
+
+        // Move the piece back and restore the captured one
+        Piece piece = this.board.getPieceAt(toRow, toCol);
+        this.board.setPieceAt(toRow, toCol, undo.capturedPiece);
+        this.board.setPieceAt(fromRow, fromCol, piece);
+        piece.setPosition(fromRow, fromCol);
+        this.bitBoard.unmovePiece(playerId, from, to, undo.capturedType);
+
+        undo.capturedPiece = null;
+        undo.previousCurrentPiece = null;
+    }
+
+    // Zobrist update for a piece moving from one square to another, with an optional capture
+    private void updatePieceKeys(int playerId, boolean master, int from, int to, int captured) {
+        long key = Zobrist.piece(playerId, master, from) ^ Zobrist.piece(playerId, master, to);
+        if (captured != BitBoard.NO_CAPTURE) {
+            key ^= Zobrist.piece(BitBoard.opponent(playerId), captured == BitBoard.MASTER_CAPTURED, to);
+        }
+        this.zobristKey ^= key;
+    }
+
+    // Zobrist update for the played card going to the neutral slot and the neutral card to the hand
+    private void updateCardKeys(int playerId, MoveCard cardPlayed, MoveCard neutralCard) {
+        int played = Deck.indexOf(cardPlayed);
+        int neutral = Deck.indexOf(neutralCard);
+        if (played >= 0) {
+            this.zobristKey ^= Zobrist.card(playerId, played) ^ Zobrist.card(Zobrist.NEUTRAL, played);
+        }
+        if (neutral >= 0) {
+            this.zobristKey ^= Zobrist.card(Zobrist.NEUTRAL, neutral) ^ Zobrist.card(playerId, neutral);
+        }
     }
 
     public void resetGame() {
         this.board = new Board();
+        this.bitBoard.load(this.board);
         this.player1 = new Player(1);
         this.player2 = new Player(2);
         this.currentPlayerId = 1; // Start with player 1
-        this.gameStatus = "ongoing"; // Initial game status
+        this.gameStatus = STATUS_ONGOING; // Initial game status
         this.currentPiece = null;
         this.neutralCardMove = null;
-        System.out.println("GameState: Game has been reset.");
+        refreshZobristKey();
+        eventListener.onGameReset();
     }
     /* --- --- --- --- --- */
 
     /* ----------------------- */
     /* --- Start Game Text --- */
     public void startGame() {
+        // The text game shows every event on the console
+        if (eventListener == GameEventListener.NONE) {
+            setEventListener(new ConsoleGameEventListener());
+        }
         // Initialize game setup
         System.out.println("Game has started!");
         initializeGameSetup();
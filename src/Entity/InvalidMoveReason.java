@@ -0,0 +1,12 @@
+package Entity;
+
+public enum InvalidMoveReason {
+    GAME_OVER,
+    MISSING_PARAMETER,
+    NOT_OWN_PIECE,
+    CARD_NOT_IN_HAND,
+    OUT_OF_BOARD,
+    INVALID_PATTERN,
+    TARGET_OCCUPIED,
+    CARD_EXCHANGE_FAILED
+}
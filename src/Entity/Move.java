@@ -0,0 +1,55 @@
+package Entity;
+
+/**
+ * Fully specified move packed into an int, so that search code can store and
+ * pass moves around without allocating.
+ * <pre>
+ * bits  0-4  : origin square (see {@link BitBoard#square})
+ * bits  5-9  : target square
+ * bits 10-14 : index of the card played in the {@link Deck}
+ * bit  15    : capture flag
+ * </pre>
+ */
+public final class Move {
+    // Value used for "no move"
+    public static final int NONE = -1;
+
+    private static final int SQUARE_MASK = 0x1F;
+    private static final int CARD_SHIFT = 10;
+    private static final int CAPTURE_FLAG = 1 << 15;
+
+    private Move() {
+    }
+
+    public static int encode(int from, int to, int cardIndex, boolean capture) {
+        return from | (to << 5) | (cardIndex << CARD_SHIFT) | (capture ? CAPTURE_FLAG : 0);
+    }
+
+    public static int getFrom(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int getTo(int move) {
+        return (move >>> 5) & SQUARE_MASK;
+    }
+
+    public static int getCardIndex(int move) {
+        return (move >>> CARD_SHIFT) & SQUARE_MASK;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE_FLAG) != 0;
+    }
+
+    public static String toString(int move) {
+        if (move == NONE) {
+            return "none";
+        }
+        int from = getFrom(move);
+        int to = getTo(move);
+        return Deck.getCard(getCardIndex(move)).getCardName()
+                + " (" + BitBoard.row(from) + "," + BitBoard.col(from) + ")"
+                + (isCapture(move) ? "x" : "-")
+                + "(" + BitBoard.row(to) + "," + BitBoard.col(to) + ")";
+    }
+}
@@ -5,12 +5,22 @@ import java.util.*;
 import java.util.List;
 
 public class MoveCard {
+    // Id of a card created by the Deck (its index there), -1 for any other card
+    public static final int NO_ID = -1;
+
+    private final int id;
     private final String cardName;
     private final List<Point> moves;
     private final int starting;
 
     /* --- Constructors --- */
     public MoveCard(String cardName, List<Point> moves, int starting) {
+        this(NO_ID, cardName, moves, starting);
+    }
+
+    // Constructor for the cards of the Deck, which own a stable small id
+    MoveCard(int id, String cardName, List<Point> moves, int starting) {
+        this.id = id;
         this.cardName = cardName;
         this.moves = moves;
         this.starting = starting;
@@ -18,6 +28,7 @@ public class MoveCard {
 
     // copy constructor
     public MoveCard(MoveCard moveCard) {
+        this.id = moveCard.id;
         this.cardName = moveCard.cardName;
         this.moves = new ArrayList<>();
         for (Point move : moveCard.moves) {
@@ -32,6 +43,13 @@ public class MoveCard {
 
     /* --------------- */
     /* --- Getters --- */
+    /**
+     * @return The index of the card in the {@link Deck}, or {@link #NO_ID} for a card created outside it.
+     */
+    public int getId() {
+        return id;
+    }
+
     /**
      * @return The name of the move card.
      */
@@ -84,13 +102,17 @@ public class MoveCard {
         if (o == null || getClass() != o.getClass()) return false;
         
         MoveCard moveCard = (MoveCard) o;
+        if (id != NO_ID && moveCard.id != NO_ID) {
+            return id == moveCard.id; // Deck cards are identified by their id
+        }
         return Objects.equals(cardName, moveCard.cardName) && // Card
                 Objects.equals(moves, moveCard.moves); // all the list
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(cardName, moves);
+        // Name only, so that a deck card and an equal card built outside the deck hash alike
+        return Objects.hashCode(cardName);
     }
 
     @Override
@@ -0,0 +1,47 @@
+package Entity;
+
+/**
+ * Legal move generation on a {@link BitBoard} using the {@link MoveTable}.
+ * Moves are written as packed ints (see {@link Move}) into a buffer supplied
+ * by the caller, so generating moves allocates nothing.
+ * Every (origin, card) pair yields a set of target squares, so the generated
+ * list never holds the same move twice.
+ */
+public final class MoveGenerator {
+    // At most 5 pieces, 2 cards and 4 targets per card
+    public static final int MAX_MOVES = 40;
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Generates every legal move of a player.
+     * @param bitBoard The position.
+     * @param playerId The player to move.
+     * @param card0 Deck index of the first card in the player's hand.
+     * @param card1 Deck index of the second card in the player's hand.
+     * @param moves Buffer receiving the packed moves, at least {@link #MAX_MOVES} long.
+     * @return The number of moves written.
+     */
+    public static int generate(BitBoard bitBoard, int playerId, int card0, int card1, int[] moves) {
+        int own = bitBoard.getPieces(playerId);
+        int enemy = bitBoard.getPieces(BitBoard.opponent(playerId));
+        int count = 0;
+        for (int pieces = own; pieces != 0; pieces &= pieces - 1) {
+            int from = Integer.numberOfTrailingZeros(pieces);
+            count = addMoves(from, card0, MoveTable.getTargets(card0, playerId, from) & ~own, enemy, moves, count);
+            if (card1 != card0) {
+                count = addMoves(from, card1, MoveTable.getTargets(card1, playerId, from) & ~own, enemy, moves, count);
+            }
+        }
+        return count;
+    }
+
+    private static int addMoves(int from, int card, int targets, int enemy, int[] moves, int count) {
+        for (int m = targets; m != 0; m &= m - 1) {
+            int to = Integer.numberOfTrailingZeros(m);
+            moves[count++] = Move.encode(from, to, card, (enemy & (1 << to)) != 0);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,76 @@
+package Entity;
+
+import java.awt.Point;
+
+/**
+ * Move targets of every {@link Deck} card, compiled once at class-load.
+ * For a (card, player, origin square) the table holds the mask of on-board
+ * squares the card reaches. Offsets are negated for player 2, exactly like
+ * the Point arithmetic in {@link GameState}.
+ */
+public final class MoveTable {
+    // Flattened [card][player - 1][square] table of target masks
+    private static final int[] TARGETS;
+
+    static {
+        int cards = Deck.size();
+        TARGETS = new int[cards * 2 * BitBoard.SQUARES];
+        for (int card = 0; card < cards; card++) {
+            for (int playerId = 1; playerId <= 2; playerId++) {
+                int[] compiled = compile(Deck.getCard(card), playerId);
+                System.arraycopy(compiled, 0, TARGETS, offset(card, playerId), BitBoard.SQUARES);
+            }
+        }
+    }
+
+    private MoveTable() {
+    }
+
+    private static int offset(int cardIndex, int playerId) {
+        return ((cardIndex << 1) + playerId - 1) * BitBoard.SQUARES;
+    }
+
+    /**
+     * Builds the target masks of a card for one player, from every square of the board.
+     * @param card The card to compile.
+     * @param playerId The player using the card (1 or 2).
+     * @return An array indexed by origin square.
+     */
+    public static int[] compile(MoveCard card, int playerId) {
+        int[] targets = new int[BitBoard.SQUARES];
+        int sign = (playerId == 1) ? 1 : -1;
+        for (int sq = 0; sq < BitBoard.SQUARES; sq++) {
+            int row = BitBoard.row(sq);
+            int col = BitBoard.col(sq);
+            int mask = 0;
+            for (Point move : card.getMoves()) {
+                int r = row + sign * move.x;
+                int c = col + sign * move.y;
+                if (r >= 0 && r < BitBoard.SIZE && c >= 0 && c < BitBoard.SIZE) {
+                    mask |= BitBoard.bit(r, c);
+                }
+            }
+            targets[sq] = mask;
+        }
+        return targets;
+    }
+
+    /**
+     * @return The mask of squares reached by the deck card from the origin square.
+     */
+    public static int getTargets(int cardIndex, int playerId, int square) {
+        return TARGETS[offset(cardIndex, playerId) + square];
+    }
+
+    /**
+     * Same as {@link #getTargets(int, int, int)} for a card object. Cards outside
+     * the {@link Deck} are compiled on the fly.
+     */
+    public static int getTargets(MoveCard card, int playerId, int square) {
+        int cardIndex = Deck.indexOf(card);
+        if (cardIndex >= 0) {
+            return getTargets(cardIndex, playerId, square);
+        }
+        return compile(card, playerId)[square];
+    }
+}
@@ -0,0 +1,143 @@
+package Entity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A whole Onitama position packed into a single {@code long}, so positions can
+ * be kept in primitive arrays, hash tables and files without any object graph.
+ * <pre>
+ * bits  0-24 : occupied squares (see {@link BitBoard#square})
+ * bits 25-34 : owner of each occupied square, in square order (0 = Player 1, 1 = Player 2)
+ * bits 35-38 : rank among the occupied squares of Player 1's master (15 = captured)
+ * bits 39-42 : rank among the occupied squares of Player 2's master (15 = captured)
+ * bit  43    : side to move (0 = Player 1, 1 = Player 2)
+ * bits 44-60 : card distribution index (see {@link CardDistribution})
+ * </pre>
+ * At most 10 pieces are ever on the board, so 10 owner bits are enough.
+ */
+public final class PackedPosition {
+    private static final int OWNER_SHIFT = 25;
+    private static final int MASTER1_SHIFT = 35;
+    private static final int MASTER2_SHIFT = 39;
+    private static final int SIDE_SHIFT = 43;
+    private static final int CARDS_SHIFT = 44;
+    private static final int NO_MASTER = 15;
+
+    private PackedPosition() {
+    }
+
+    /* --------------- */
+    /* --- Packing --- */
+    public static long pack(BitBoard bitBoard, int sideToMove, int distribution) {
+        int occupied = bitBoard.getOccupied();
+        int p2Pieces = bitBoard.getPieces(2);
+        int master1 = bitBoard.getMaster(1);
+        int master2 = bitBoard.getMaster(2);
+
+        long owners = 0L;
+        int master1Rank = NO_MASTER;
+        int master2Rank = NO_MASTER;
+        int rank = 0;
+        for (int m = occupied; m != 0; m &= m - 1, rank++) {
+            int b = m & -m;
+            if ((p2Pieces & b) != 0) {
+                owners |= 1L << rank;
+            }
+            if (b == master1) {
+                master1Rank = rank;
+            } else if (b == master2) {
+                master2Rank = rank;
+            }
+        }
+
+        return (occupied & 0xFFFFFFFFL)
+                | (owners << OWNER_SHIFT)
+                | ((long) master1Rank << MASTER1_SHIFT)
+                | ((long) master2Rank << MASTER2_SHIFT)
+                | ((long) (sideToMove - 1) << SIDE_SHIFT)
+                | ((long) distribution << CARDS_SHIFT);
+    }
+
+    /**
+     * Packs the position of a game state. Both hands and the neutral card must be
+     * {@link Deck} cards.
+     */
+    public static long pack(GameState gameState) {
+        return pack(gameState.getBitBoard(), gameState.getCurrentPlayerId(), CardDistribution.indexOf(gameState));
+    }
+    /* --- --- --- --- --- */
+
+    /* ----------------- */
+    /* --- Unpacking --- */
+    /**
+     * Writes the pieces of a packed position into a bitboard.
+     */
+    public static void unpack(long position, BitBoard bitBoard) {
+        bitBoard.clear();
+        int occupied = getOccupied(position);
+        long owners = position >>> OWNER_SHIFT;
+        int master1Rank = (int) (position >>> MASTER1_SHIFT) & 0xF;
+        int master2Rank = (int) (position >>> MASTER2_SHIFT) & 0xF;
+        int rank = 0;
+        for (int m = occupied; m != 0; m &= m - 1, rank++) {
+            int sq = Integer.numberOfTrailingZeros(m);
+            int playerId = ((owners >>> rank) & 1L) == 0 ? 1 : 2;
+            bitBoard.setPiece(playerId, rank == master1Rank || rank == master2Rank, sq);
+        }
+    }
+
+    /**
+     * Builds a new game state holding the packed position. The game status is
+     * set from the win conditions of the player who just moved, the only one who
+     * can have won in a reachable position.
+     */
+    public static GameState toGameState(long position) {
+        BitBoard bitBoard = new BitBoard();
+        unpack(position, bitBoard);
+
+        int distribution = getDistribution(position);
+        GameState gameState = new GameState();
+        gameState.setBoard(bitBoard.toBoard());
+        gameState.getPlayer1().setMoveCards(hand(CardDistribution.getPlayer1Card(distribution, 0),
+                CardDistribution.getPlayer1Card(distribution, 1)));
+        gameState.getPlayer2().setMoveCards(hand(CardDistribution.getPlayer2Card(distribution, 0),
+                CardDistribution.getPlayer2Card(distribution, 1)));
+        gameState.setNeutralCardMove(Deck.getCard(CardDistribution.getNeutralCard(distribution)));
+        gameState.setCurrentPlayerId(getSideToMove(position));
+        gameState.checkWinConditions(BitBoard.opponent(getSideToMove(position)));
+        return gameState;
+    }
+
+    private static ArrayList<MoveCard> hand(int first, int second) {
+        return new ArrayList<>(List.of(Deck.getCard(first), Deck.getCard(second)));
+    }
+    /* --- --- --- --- --- */
+
+    /* --------------- */
+    /* --- Getters --- */
+    public static int getOccupied(long position) {
+        return (int) position & BitBoard.FULL_MASK;
+    }
+
+    public static int getSideToMove(long position) {
+        return (int) ((position >>> SIDE_SHIFT) & 1L) + 1;
+    }
+
+    public static int getDistribution(long position) {
+        return (int) (position >>> CARDS_SHIFT);
+    }
+
+    public static String toString(long position) {
+        BitBoard bitBoard = new BitBoard();
+        unpack(position, bitBoard);
+        int distribution = getDistribution(position);
+        return bitBoard + "Player " + getSideToMove(position) + " to move, P1 cards: "
+                + Deck.getCard(CardDistribution.getPlayer1Card(distribution, 0)).getCardName() + ", "
+                + Deck.getCard(CardDistribution.getPlayer1Card(distribution, 1)).getCardName() + ", P2 cards: "
+                + Deck.getCard(CardDistribution.getPlayer2Card(distribution, 0)).getCardName() + ", "
+                + Deck.getCard(CardDistribution.getPlayer2Card(distribution, 1)).getCardName() + ", neutral: "
+                + Deck.getCard(CardDistribution.getNeutralCard(distribution)).getCardName();
+    }
+    /* --- --- --- --- --- */
+}
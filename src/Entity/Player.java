@@ -5,6 +5,8 @@ import java.util.ArrayList;
 public class Player {
     //MoveCard that a player own, limit to 2 per player
     private ArrayList<MoveCard> moveCards;
+    // Bitmask of the ids of the deck cards in hand, kept up to date with moveCards
+    private int cardMask;
     // Player id : 1 for blue, 2 for red
     private int id;
 
@@ -19,6 +21,7 @@ public class Player {
     public Player(Player player) {
         this.id = player.id;
         this.moveCards = new ArrayList<>(player.moveCards);
+        this.cardMask = player.cardMask;
     }
     /* --- --- --- --- --- */
 
@@ -34,12 +37,20 @@ public class Player {
 
     
     /**
-     * @return A list of move cards that the player owns.
+     * @return A list of move cards that the player owns. Change the hand through
+     *         the methods of this class only, so that the card mask follows.
      */
     public ArrayList<MoveCard> getMoveCards() {
         return moveCards;
     }
 
+    /**
+     * @return A bitmask of the {@link MoveCard#getId() ids} of the deck cards in hand.
+     */
+    public int getCardMask() {
+        return cardMask;
+    }
+
     /* --- --- --- --- --- */
 
 
@@ -64,6 +75,18 @@ public class Player {
         } else {
             this.moveCards = new ArrayList<>();
         }
+        updateCardMask();
+    }
+
+    /**
+     * Puts a card in the given slot of the hand, without the checks of
+     * {@link #exchangeMoveCard}. Used to make and take back moves.
+     * @return The card that was in the slot.
+     */
+    public MoveCard setMoveCard(int slot, MoveCard moveCard) {
+        MoveCard oldCard = moveCards.set(slot, moveCard);
+        cardMask = (cardMask & ~cardBit(oldCard)) | cardBit(moveCard);
+        return oldCard;
     }
 
     /* --- --- --- --- --- */
@@ -77,33 +100,74 @@ public class Player {
             return false; // Cannot add null or exceed limit
         }
         moveCards.add(moveCard);
+        cardMask |= cardBit(moveCard);
         return true;
     }
 
     // Remove a move card from the player's list of move cards.
     public boolean removeMoveCard(MoveCard moveCard) {
-        if (moveCard == null || !moveCards.contains(moveCard)) {
+        int index = indexOfMoveCard(moveCard);
+        if (index < 0) {
             return false; // Cannot remove null or non-existent card
         }
-        moveCards.remove(moveCard);
+        moveCards.remove(index);
+        updateCardMask();
         return true;
     }
 
     public boolean hasMoveCard(MoveCard moveCard) {
-        if (moveCard == null) {
-            return false; // Cannot check for null move card
-        }
-        return moveCards.contains(moveCard);
+        return indexOfMoveCard(moveCard) >= 0;
     }
 
     public boolean exchangeMoveCard(MoveCard oldCard, MoveCard newCard) {
         if (oldCard == null || newCard == null) {
             return false;
         }
-        if (this.moveCards.remove(oldCard)) {
-            return this.moveCards.add(newCard);
+        int index = indexOfMoveCard(oldCard);
+        if (index < 0) {
+            return false; // cardToRemove was not in hand
+        }
+        this.moveCards.remove(index);
+        this.moveCards.add(newCard);
+        updateCardMask();
+        return true;
+    }
+
+    private void updateCardMask() {
+        int mask = 0;
+        for (int i = 0; i < moveCards.size(); i++) {
+            mask |= cardBit(moveCards.get(i));
+        }
+        cardMask = mask;
+    }
+
+    private static int cardBit(MoveCard moveCard) {
+        int id = moveCard.getId();
+        return (id != MoveCard.NO_ID) ? 1 << id : 0;
+    }
+
+    // Position of the card in hand, -1 if absent. Deck cards are compared by id.
+    private int indexOfMoveCard(MoveCard moveCard) {
+        if (moveCard == null) {
+            return -1;
+        }
+        int id = moveCard.getId();
+        for (int i = 0; i < moveCards.size(); i++) {
+            MoveCard card = moveCards.get(i);
+            if (card == moveCard || (id != MoveCard.NO_ID && card.getId() == id)) {
+                return i;
+            }
+        }
+        if (id != MoveCard.NO_ID) {
+            // Only cards outside the deck need the full comparison
+            for (int i = 0; i < moveCards.size(); i++) {
+                if (moveCards.get(i).getId() == MoveCard.NO_ID && moveCards.get(i).equals(moveCard)) {
+                    return i;
+                }
+            }
+            return -1;
         }
-        return false; // cardToRemove was not in hand
+        return moveCards.indexOf(moveCard);
     }
 
     @Override
@@ -0,0 +1,38 @@
+package Entity;
+
+/**
+ * Everything {@link GameState#unmakeMove} needs to take back a move.
+ * Records are filled by {@link GameState#makeMove} and meant to be reused:
+ * search code keeps one record per ply instead of allocating on every move.
+ */
+public class UndoRecord {
+    int move = Move.NONE;
+    int playerId;
+    int handSlot;
+    int capturedType;
+    Piece capturedPiece;
+    Piece previousCurrentPiece;
+    String previousStatus;
+    long previousKey;
+
+    /**
+     * @return The packed move stored in this record.
+     */
+    public int getMove() {
+        return move;
+    }
+
+    /**
+     * @return The player who made the move.
+     */
+    public int getPlayerId() {
+        return playerId;
+    }
+
+    /**
+     * @return The captured piece, or null if the move was not a capture.
+     */
+    public Piece getCapturedPiece() {
+        return capturedPiece;
+    }
+}
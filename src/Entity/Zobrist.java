@@ -0,0 +1,97 @@
+package Entity;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random 64-bit keys used to hash a complete position: piece placement,
+ * side to move, and which {@link Deck} card sits in each hand or in the
+ * neutral slot. Hands are hashed as sets, so the order of the cards in
+ * {@link Player#getMoveCards()} does not change the key.
+ */
+public final class Zobrist {
+    // Card owners used to index the card keys
+    public static final int NEUTRAL = 0;
+
+    // Fixed seed, keys must be stable between runs (books and files store them)
+    private static final long SEED = 0x4F6E6974616D61L;
+
+    // Flattened [playerId][isMaster][square] piece keys
+    private static final long[] PIECE_KEYS = new long[3 * 2 * BitBoard.SQUARES];
+    // Flattened [owner][cardIndex] card keys, owner is NEUTRAL or a player id
+    private static final long[] CARD_KEYS;
+    // Xored in when Player 2 is to move
+    public static final long SIDE_KEY;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 2 * BitBoard.SQUARES; i < PIECE_KEYS.length; i++) {
+            PIECE_KEYS[i] = random.nextLong();
+        }
+        CARD_KEYS = new long[3 * Deck.size()];
+        for (int i = 0; i < CARD_KEYS.length; i++) {
+            CARD_KEYS[i] = random.nextLong();
+        }
+        SIDE_KEY = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    public static long piece(int playerId, boolean master, int square) {
+        return PIECE_KEYS[((playerId << 1) + (master ? 1 : 0)) * BitBoard.SQUARES + square];
+    }
+
+    /**
+     * @param owner {@link #NEUTRAL} or the id of the player holding the card.
+     * @param cardIndex Index of the card in the {@link Deck}.
+     */
+    public static long card(int owner, int cardIndex) {
+        return CARD_KEYS[owner * Deck.size() + cardIndex];
+    }
+
+    // Card key that tolerates cards outside the deck (they are not hashed)
+    private static long card(int owner, MoveCard card) {
+        int cardIndex = Deck.indexOf(card);
+        return cardIndex < 0 ? 0L : card(owner, cardIndex);
+    }
+
+    /**
+     * Computes the key of a bitboard from scratch.
+     */
+    public static long compute(BitBoard bitBoard) {
+        long key = 0L;
+        for (int playerId = 1; playerId <= 2; playerId++) {
+            for (int m = bitBoard.getPawns(playerId); m != 0; m &= m - 1) {
+                key ^= piece(playerId, false, Integer.numberOfTrailingZeros(m));
+            }
+            for (int m = bitBoard.getMaster(playerId); m != 0; m &= m - 1) {
+                key ^= piece(playerId, true, Integer.numberOfTrailingZeros(m));
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Computes the full key of a game state from scratch. {@link GameState}
+     * maintains the same value incrementally, see {@link GameState#getZobristKey()}.
+     */
+    public static long compute(GameState gameState) {
+        long key = compute(gameState.getBitBoard());
+        for (int playerId = 1; playerId <= 2; playerId++) {
+            Player player = gameState.getPlayer(playerId);
+            if (player == null) {
+                continue;
+            }
+            for (MoveCard moveCard : player.getMoveCards()) {
+                key ^= card(playerId, moveCard);
+            }
+        }
+        if (gameState.getNeutralCardMove() != null) {
+            key ^= card(NEUTRAL, gameState.getNeutralCardMove());
+        }
+        if (gameState.getCurrentPlayerId() == 2) {
+            key ^= SIDE_KEY;
+        }
+        return key;
+    }
+}
@@ -1,13 +1,79 @@
+import AI.AIPlayer;
+import AI.LazySmpSearch;
+import AI.MonteCarloTreeSearch;
+import AI.OpeningBook;
+import AI.SearchEngine;
+import AI.Searcher;
+import AI.Tablebase;
+import AI.Tournament;
 import Boundary.GameView;
 import Controller.GameController;
 import Entity.GameState;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import javax.swing.SwingUtilities;
 
 public class Onitama {
     private static String gameMode = "GUI"; // or "GUI"
     
     
-    public static void main(String[] args) {
+    // Usage: Onitama [--ai <playerId>]... [--time <ms>] [--threads <n>] [--mcts] [--tablebase <dir>] [--book <file>] [--ponder] [--analysis]
+    //        Onitama --tournament [--games N] [--engine1 spec] [--engine2 spec] [--concurrency n] [--seed s] [--sprt elo0,elo1[,alpha,beta]]
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--tournament")) {
+            gameMode = "Tournament";
+        }
+
+        /* ------------------------------ */
+        /* --- Headless engine match --- */
+        if (gameMode.equals("Tournament")) {
+            Tournament.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        /* --- --- --- --- --- */
+
+        boolean[] aiPlayers = new boolean[3];
+        long aiTimeMillis = AIPlayer.DEFAULT_TIME_BUDGET_MILLIS;
+        int aiThreads = 1;
+        boolean useMcts = false;
+        Tablebase aiTablebase = null;
+        OpeningBook aiBook = null;
+        boolean aiPonder = false;
+        boolean startAnalysis = false;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--ai") && i + 1 < args.length) {
+                int playerId = Integer.parseInt(args[++i]);
+                if (playerId != 1 && playerId != 2) {
+                    throw new IllegalArgumentException("--ai expects player 1 or 2.");
+                }
+                aiPlayers[playerId] = true;
+            } else if (args[i].equals("--time") && i + 1 < args.length) {
+                aiTimeMillis = Long.parseLong(args[++i]);
+            } else if (args[i].equals("--threads") && i + 1 < args.length) {
+                aiThreads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--mcts")) {
+                useMcts = true;
+            } else if (args[i].equals("--tablebase") && i + 1 < args.length) {
+                aiTablebase = new Tablebase(Paths.get(args[++i]));
+            } else if (args[i].equals("--book") && i + 1 < args.length) {
+                aiBook = new OpeningBook(Paths.get(args[++i]));
+            } else if (args[i].equals("--ponder")) {
+                aiPonder = true;
+            } else if (args[i].equals("--analysis")) {
+                startAnalysis = true;
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        final long timeMillis = aiTimeMillis;
+        final int threads = aiThreads;
+        final boolean mcts = useMcts;
+        final Tablebase tablebase = aiTablebase;
+        final OpeningBook book = aiBook;
+        final boolean ponder = aiPonder;
+        final boolean analysis = startAnalysis;
+
         /* ------------------------- */
         /* --- Terminal GamePlay --- */
         if (gameMode.equals("Terminal")) {
@@ -29,10 +95,33 @@ public class Onitama {
                 GameController controller = new GameController();
                 GameView gameView = new GameView(controller);
                 controller.setView(gameView);
+                for (int playerId = 1; playerId <= 2; playerId++) {
+                    if (aiPlayers[playerId]) {
+                        AIPlayer aiPlayer = new AIPlayer(createSearcher(mcts, threads, tablebase), timeMillis);
+                        aiPlayer.setOpeningBook(book);
+                        aiPlayer.setPonder(ponder);
+                        controller.setAIPlayer(playerId, aiPlayer);
+                    }
+                }
                 gameView.setVisible(true);
                 controller.startGame(); // Start the game
+                gameView.setAnalysisEnabled(analysis);
             });
         }
         /* --- --- --- --- --- */
     }
-}
\ No newline at end of file
+
+    private static Searcher createSearcher(boolean mcts, int threads, Tablebase tablebase) {
+        if (mcts) {
+            return new MonteCarloTreeSearch(threads);
+        }
+        if (threads > 1) {
+            LazySmpSearch search = new LazySmpSearch(threads);
+            search.setTablebase(tablebase);
+            return search;
+        }
+        SearchEngine engine = new SearchEngine();
+        engine.setTablebase(tablebase);
+        return engine;
+    }
+}